@@ -3,13 +3,20 @@ package com.swaply.swaplybackend.cache.listing;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
 
 
-public class BPlusTree<K extends Comparable<K>, V> {
+public class BPlusTree<K extends Comparable<? super K>, V> {
+
+    // Leave headroom in bulk-loaded nodes so inserts between refreshes don't split immediately
+    private static final double BULK_LOAD_FILL_FACTOR = 0.75;
+
+    // Optimistic attempts before a reader falls back to a (blocking) read lock
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 4;
 
     private final int order;
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StampedLock lock = new StampedLock();
     private Node<K, V> root;
     private LeafNode<K, V> firstLeaf;
     private LeafNode<K, V> lastLeaf;
@@ -19,18 +26,18 @@ public class BPlusTree<K extends Comparable<K>, V> {
     }
 
     public void clear() {
-        lock.writeLock().lock();
+        long stamp = lock.writeLock();
         try {
             root = null;
             firstLeaf = null;
             lastLeaf = null;
         } finally {
-            lock.writeLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
     public void insert(K key, V value) {
-        lock.writeLock().lock();
+        long stamp = lock.writeLock();
         try {
             if (root == null) {
                 LeafNode<K, V> leaf = new LeafNode<>();
@@ -47,82 +54,246 @@ public class BPlusTree<K extends Comparable<K>, V> {
                 splitLeaf(leaf);
             }
         } finally {
-            lock.writeLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
+    /**
+     * Replaces the tree contents using a bottom-up bulk load: pairs are sorted once, packed into
+     * leaves at {@link #BULK_LOAD_FILL_FACTOR}, and each internal level is built in a single pass
+     * over the level below. No splits happen, so the build is linear after the sort (and the sort
+     * itself is linear for the already-ordered lists the cache hands in).
+     */
     public void rebuild(List<Pair<K, V>> entries) {
-        lock.writeLock().lock();
+        List<Pair<K, V>> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> a.key().compareTo(b.key()));
+        long stamp = lock.writeLock();
         try {
-            clear();
-            entries.forEach(pair -> insert(pair.key(), pair.value()));
+            bulkLoad(sorted);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
     public List<V> scanDescending(int limit) {
-        lock.readLock().lock();
-        try {
-            List<V> result = new ArrayList<>();
-            LeafNode<K, V> node = lastLeaf;
-            while (node != null && result.size() < limit) {
-                for (int i = node.keys.size() - 1; i >= 0 && result.size() < limit; i--) {
-                    result.addAll(node.values.get(i));
-                    if (result.size() >= limit) {
-                        break;
-                    }
+        return read(stamp -> collectDescending(null, limit, stamp));
+    }
+
+    /**
+     * Descending scan that starts strictly below {@code upper}.
+     */
+    public List<V> scanDescendingBefore(K upper, int limit) {
+        return read(stamp -> collectDescending(upper, limit, stamp));
+    }
+
+    public List<V> rangeSearch(K min, K max, int limit) {
+        if (min.compareTo(max) > 0) {
+            return List.of();
+        }
+        return read(stamp -> collectRange(min, true, max, limit, stamp));
+    }
+
+    /**
+     * Ascending scan over keys strictly greater than {@code after} and at most {@code max}.
+     */
+    public List<V> rangeSearchAfter(K after, K max, int limit) {
+        if (after.compareTo(max) >= 0) {
+            return List.of();
+        }
+        return read(stamp -> collectRange(after, false, max, limit, stamp));
+    }
+
+    /**
+     * Runs a reader without taking the lock, validating the optimistic stamp afterwards (and on
+     * every leaf hop). Writers only invalidate the attempt; the reader falls back to the shared
+     * read lock after {@link #OPTIMISTIC_READ_ATTEMPTS} failed tries. A reader that trips over a
+     * half-updated node throws or returns null, both of which are treated as a failed attempt.
+     */
+    private List<V> read(LongFunction<List<V>> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                List<V> result = reader.apply(stamp);
+                if (result != null && lock.validate(stamp)) {
+                    return result;
                 }
-                node = node.prev;
+            } catch (RuntimeException ignored) {
+                // Inconsistent snapshot caused by a concurrent writer; retry
             }
-            return result.subList(0, Math.min(result.size(), limit));
+        }
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(0L);
         } finally {
-            lock.readLock().unlock();
+            lock.unlockRead(stamp);
         }
     }
 
-    public List<V> rangeSearch(K min, K max, int limit) {
-        lock.readLock().lock();
-        try {
-            if (root == null || min.compareTo(max) > 0) {
-                return List.of();
+    private boolean invalidated(long stamp) {
+        return stamp != 0L && !lock.validate(stamp);
+    }
+
+    private List<V> collectDescending(K upper, int limit, long stamp) {
+        List<V> result = new ArrayList<>();
+        LeafNode<K, V> node = upper == null ? lastLeaf : findLeafNode(upper);
+        if (node == null) {
+            return result;
+        }
+        // Position of the last key strictly below the upper bound, if any
+        int from = node.keys.size() - 1;
+        if (upper != null) {
+            int pos = Collections.binarySearch(node.keys, upper);
+            from = pos >= 0 ? pos - 1 : -pos - 2;
+        }
+        while (node != null && result.size() < limit) {
+            if (invalidated(stamp)) {
+                return null;
             }
-            List<V> result = new ArrayList<>();
-            LeafNode<K, V> node = findLeafNode(min);
-            if (node == null) {
-                return result;
+            for (int i = from; i >= 0 && result.size() < limit; i--) {
+                result.addAll(node.values.get(i));
             }
-            while (node != null && result.size() < limit) {
-                for (int i = 0; i < node.keys.size(); i++) {
-                    K key = node.keys.get(i);
-                    if (key.compareTo(max) > 0) {
-                        return result;
-                    }
-                    if (key.compareTo(min) >= 0) {
-                        result.addAll(node.values.get(i));
-                        if (result.size() >= limit) {
-                            return result.subList(0, limit);
-                        }
+            node = node.prev;
+            if (node != null) {
+                from = node.keys.size() - 1;
+            }
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private List<V> collectRange(K min, boolean minInclusive, K max, int limit, long stamp) {
+        List<V> result = new ArrayList<>();
+        LeafNode<K, V> node = findLeafNode(min);
+        while (node != null && result.size() < limit) {
+            if (invalidated(stamp)) {
+                return null;
+            }
+            for (int i = 0; i < node.keys.size(); i++) {
+                K key = node.keys.get(i);
+                if (key.compareTo(max) > 0) {
+                    return result;
+                }
+                int cmp = key.compareTo(min);
+                if (cmp > 0 || (minInclusive && cmp == 0)) {
+                    result.addAll(node.values.get(i));
+                    if (result.size() >= limit) {
+                        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
                     }
                 }
-                node = node.next;
             }
-            return result.subList(0, Math.min(result.size(), limit));
-        } finally {
-            lock.readLock().unlock();
+            node = node.next;
         }
+        return result;
     }
 
     public void remove(K key, java.util.function.Predicate<V> matcher) {
-        lock.writeLock().lock();
+        long stamp = lock.writeLock();
         try {
             LeafNode<K, V> leaf = findLeafNode(key);
             if (leaf == null) {
                 return;
             }
-            leaf.remove(key, matcher);
+            if (leaf.remove(key, matcher) && leaf.keys.size() < minKeys()) {
+                rebalanceLeaf(leaf);
+            }
         } finally {
-            lock.writeLock().unlock();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void bulkLoad(List<Pair<K, V>> sorted) {
+        root = null;
+        firstLeaf = null;
+        lastLeaf = null;
+        if (sorted.isEmpty()) {
+            return;
+        }
+
+        List<K> keys = new ArrayList<>();
+        List<List<V>> buckets = new ArrayList<>();
+        for (Pair<K, V> pair : sorted) {
+            int last = keys.size() - 1;
+            if (last >= 0 && keys.get(last).compareTo(pair.key()) == 0) {
+                buckets.get(last).add(pair.value());
+            } else {
+                keys.add(pair.key());
+                List<V> bucket = new ArrayList<>(1);
+                bucket.add(pair.value());
+                buckets.add(bucket);
+            }
+        }
+
+        // Leaves hold at most order - 1 keys; internal nodes hold one more child than keys
+        int capacity = Math.max(2, (int) ((order - 1) * BULK_LOAD_FILL_FACTOR));
+        int leafCount = ceilDiv(keys.size(), capacity);
+        List<Node<K, V>> level = new ArrayList<>(leafCount);
+        List<K> lowKeys = new ArrayList<>(leafCount);
+        LeafNode<K, V> previous = null;
+        int from = 0;
+        for (int i = 0; i < leafCount; i++) {
+            int to = from + share(keys.size(), leafCount, i);
+            LeafNode<K, V> leaf = new LeafNode<>();
+            leaf.keys.addAll(keys.subList(from, to));
+            leaf.values.addAll(buckets.subList(from, to));
+            leaf.prev = previous;
+            if (previous != null) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level.add(leaf);
+            lowKeys.add(keys.get(from));
+            from = to;
+        }
+        firstLeaf = (LeafNode<K, V>) level.get(0);
+        lastLeaf = previous;
+
+        int fanout = capacity + 1;
+        while (level.size() > 1) {
+            int parentCount = ceilDiv(level.size(), fanout);
+            List<Node<K, V>> parents = new ArrayList<>(parentCount);
+            List<K> parentLowKeys = new ArrayList<>(parentCount);
+            from = 0;
+            for (int i = 0; i < parentCount; i++) {
+                int to = from + share(level.size(), parentCount, i);
+                InternalNode<K, V> parent = new InternalNode<>();
+                for (Node<K, V> child : level.subList(from, to)) {
+                    parent.addChild(child);
+                }
+                parent.keys.addAll(lowKeys.subList(from + 1, to));
+                parents.add(parent);
+                parentLowKeys.add(lowKeys.get(from));
+                from = to;
+            }
+            level = parents;
+            lowKeys = parentLowKeys;
+        }
+        root = level.get(0);
+    }
+
+    private static int ceilDiv(int total, int size) {
+        return (total + size - 1) / size;
+    }
+
+    // Spread items evenly so the trailing node is never left nearly empty
+    private static int share(int total, int parts, int index) {
+        return total / parts + (index < total % parts ? 1 : 0);
+    }
+
+    int height() {
+        long stamp = lock.readLock();
+        try {
+            int height = 0;
+            Node<K, V> current = root;
+            while (current != null) {
+                height++;
+                current = current.isLeaf() ? null : ((InternalNode<K, V>) current).children.get(0);
+            }
+            return height;
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
@@ -169,7 +340,9 @@ public class BPlusTree<K extends Comparable<K>, V> {
 
         InternalNode<K, V> sibling = new InternalNode<>();
         sibling.keys.addAll(node.keys.subList(midIndex + 1, node.keys.size()));
-        sibling.children.addAll(node.children.subList(midIndex + 1, node.children.size()));
+        for (Node<K, V> child : node.children.subList(midIndex + 1, node.children.size())) {
+            sibling.addChild(child);
+        }
 
         node.keys.subList(midIndex, node.keys.size()).clear();
         node.children.subList(midIndex + 1, node.children.size()).clear();
@@ -178,52 +351,126 @@ public class BPlusTree<K extends Comparable<K>, V> {
     }
 
     private void insertIntoParent(Node<K, V> left, K key, Node<K, V> right) {
-        if (left == root) {
+        InternalNode<K, V> parent = left.parent;
+        if (parent == null) {
             InternalNode<K, V> newRoot = new InternalNode<>();
             newRoot.keys.add(key);
-            newRoot.children.add(left);
-            newRoot.children.add(right);
+            newRoot.addChild(left);
+            newRoot.addChild(right);
             root = newRoot;
             return;
         }
-        InternalNode<K, V> parent = findParent(root, left);
+        parent.insertChildAfter(left, key, right);
+        if (parent.isOverflow(order)) {
+            splitInternal(parent);
+        }
+    }
+
+    // Nodes other than the root keep at least this many keys; two minimal siblings always fit in one node
+    private int minKeys() {
+        return (order - 1) / 2;
+    }
+
+    private void rebalanceLeaf(LeafNode<K, V> leaf) {
+        InternalNode<K, V> parent = leaf.parent;
         if (parent == null) {
+            if (leaf.keys.isEmpty()) {
+                root = null;
+                firstLeaf = null;
+                lastLeaf = null;
+            }
             return;
         }
-        parent.insertChild(key, right);
-        if (parent.isOverflow(order)) {
-            splitInternal(parent);
+        int idx = parent.indexOf(leaf);
+        LeafNode<K, V> left = idx > 0 ? (LeafNode<K, V>) parent.children.get(idx - 1) : null;
+        LeafNode<K, V> right = idx < parent.children.size() - 1 ? (LeafNode<K, V>) parent.children.get(idx + 1) : null;
+
+        if (left != null && left.keys.size() > minKeys()) {
+            int last = left.keys.size() - 1;
+            leaf.keys.add(0, left.keys.remove(last));
+            leaf.values.add(0, left.values.remove(last));
+            parent.keys.set(idx - 1, leaf.keys.get(0));
+        } else if (right != null && right.keys.size() > minKeys()) {
+            leaf.keys.add(right.keys.remove(0));
+            leaf.values.add(right.values.remove(0));
+            parent.keys.set(idx, right.keys.get(0));
+        } else if (left != null) {
+            mergeLeaves(left, leaf, idx - 1);
+        } else if (right != null) {
+            mergeLeaves(leaf, right, idx);
         }
     }
 
-    private InternalNode<K, V> findParent(Node<K, V> current, Node<K, V> child) {
-        if (current == null || current.isLeaf()) {
-            return null;
+    private void mergeLeaves(LeafNode<K, V> left, LeafNode<K, V> right, int separatorIndex) {
+        left.keys.addAll(right.keys);
+        left.values.addAll(right.values);
+        left.next = right.next;
+        if (left.next != null) {
+            left.next.prev = left;
+        } else {
+            lastLeaf = left;
         }
-        InternalNode<K, V> internal = (InternalNode<K, V>) current;
-        for (Node<K, V> candidate : internal.children) {
-            if (candidate == child) {
-                return internal;
+        removeSeparator(left.parent, separatorIndex);
+    }
+
+    private void removeSeparator(InternalNode<K, V> parent, int separatorIndex) {
+        parent.keys.remove(separatorIndex);
+        parent.children.remove(separatorIndex + 1);
+        if (parent == root) {
+            if (parent.keys.isEmpty()) {
+                // Collapse the root once it is down to a single child
+                Node<K, V> child = parent.children.get(0);
+                child.parent = null;
+                root = child;
             }
+            return;
         }
-        for (Node<K, V> candidate : internal.children) {
-            InternalNode<K, V> parent = findParent(candidate, child);
-            if (parent != null) {
-                return parent;
-            }
+        if (parent.keys.size() < minKeys()) {
+            rebalanceInternal(parent);
+        }
+    }
+
+    private void rebalanceInternal(InternalNode<K, V> node) {
+        InternalNode<K, V> parent = node.parent;
+        int idx = parent.indexOf(node);
+        InternalNode<K, V> left = idx > 0 ? (InternalNode<K, V>) parent.children.get(idx - 1) : null;
+        InternalNode<K, V> right = idx < parent.children.size() - 1 ? (InternalNode<K, V>) parent.children.get(idx + 1) : null;
+
+        if (left != null && left.keys.size() > minKeys()) {
+            int last = left.keys.size() - 1;
+            node.keys.add(0, parent.keys.get(idx - 1));
+            node.addChild(0, left.children.remove(last + 1));
+            parent.keys.set(idx - 1, left.keys.remove(last));
+        } else if (right != null && right.keys.size() > minKeys()) {
+            node.keys.add(parent.keys.get(idx));
+            node.addChild(right.children.remove(0));
+            parent.keys.set(idx, right.keys.remove(0));
+        } else if (left != null) {
+            mergeInternal(left, node, idx - 1);
+        } else if (right != null) {
+            mergeInternal(node, right, idx);
+        }
+    }
+
+    private void mergeInternal(InternalNode<K, V> left, InternalNode<K, V> right, int separatorIndex) {
+        left.keys.add(left.parent.keys.get(separatorIndex));
+        left.keys.addAll(right.keys);
+        for (Node<K, V> child : right.children) {
+            left.addChild(child);
         }
-        return null;
+        removeSeparator(left.parent, separatorIndex);
     }
 
-    private abstract static class Node<K extends Comparable<K>, V> {
+    private abstract static class Node<K extends Comparable<? super K>, V> {
         protected final List<K> keys = new ArrayList<>();
+        protected InternalNode<K, V> parent;
         abstract boolean isLeaf();
         boolean isOverflow(int order) {
             return keys.size() >= order;
         }
     }
 
-    private static final class InternalNode<K extends Comparable<K>, V> extends Node<K, V> {
+    private static final class InternalNode<K extends Comparable<? super K>, V> extends Node<K, V> {
         private final List<Node<K, V>> children = new ArrayList<>();
 
         @Override
@@ -232,26 +479,37 @@ public class BPlusTree<K extends Comparable<K>, V> {
         }
 
         int childIndex(K key) {
-            int idx = 0;
-            while (idx < keys.size() && key.compareTo(keys.get(idx)) >= 0) {
-                idx++;
-            }
-            return idx;
+            int pos = Collections.binarySearch(keys, key);
+            return pos >= 0 ? pos + 1 : -pos - 1;
         }
 
-        void insertChild(K key, Node<K, V> child) {
-            int pos = Collections.binarySearch(keys, key);
-            if (pos >= 0) {
-                pos += 1;
-            } else {
-                pos = -pos - 1;
+        int indexOf(Node<K, V> child) {
+            for (int i = 0; i < children.size(); i++) {
+                if (children.get(i) == child) {
+                    return i;
+                }
             }
+            return -1;
+        }
+
+        void addChild(Node<K, V> child) {
+            child.parent = this;
+            children.add(child);
+        }
+
+        void addChild(int pos, Node<K, V> child) {
+            child.parent = this;
+            children.add(pos, child);
+        }
+
+        void insertChildAfter(Node<K, V> left, K key, Node<K, V> right) {
+            int pos = indexOf(left);
             keys.add(pos, key);
-            children.add(pos + 1, child);
+            addChild(pos + 1, right);
         }
     }
 
-    private static final class LeafNode<K extends Comparable<K>, V> extends Node<K, V> {
+    private static final class LeafNode<K extends Comparable<? super K>, V> extends Node<K, V> {
         private final List<List<V>> values = new ArrayList<>();
         private LeafNode<K, V> next;
         private LeafNode<K, V> prev;
@@ -274,17 +532,19 @@ public class BPlusTree<K extends Comparable<K>, V> {
             values.add(pos, bucket);
         }
 
-        void remove(K key, java.util.function.Predicate<V> matcher) {
+        boolean remove(K key, java.util.function.Predicate<V> matcher) {
             int pos = Collections.binarySearch(keys, key);
             if (pos < 0) {
-                return;
+                return false;
             }
             List<V> bucket = values.get(pos);
             bucket.removeIf(matcher);
             if (bucket.isEmpty()) {
                 keys.remove(pos);
                 values.remove(pos);
+                return true;
             }
+            return false;
         }
     }
 
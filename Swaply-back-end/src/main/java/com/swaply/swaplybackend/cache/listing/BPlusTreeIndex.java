@@ -1,26 +1,59 @@
 package com.swaply.swaplybackend.cache.listing;
 
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
+/**
+ * ListingIndex over ConcurrentSkipListMaps keyed by {@link IndexKey}, with prices kept in a
+ * {@link PriceCentsIndex} instead. Writers serialize on the instance monitor; readers iterate the
+ * maps without any lock, and since every slot holds a single entry there is no shared bucket a
+ * reader could observe mid-update. A multi-map write such as {@link #replace} is not isolated
+ * from readers, though.
+ */
 public class BPlusTreeIndex implements ListingIndex {
 
     private final ConcurrentHashMap<Long, ListingCacheEntry> entriesById = new ConcurrentHashMap<>();
-    private final ConcurrentSkipListMap<BigDecimal, List<ListingCacheEntry>> priceTree = new ConcurrentSkipListMap<>();
-    private final ConcurrentSkipListMap<LocalDateTime, List<ListingCacheEntry>> createdTree = new ConcurrentSkipListMap<>();
-    private final ConcurrentSkipListMap<Long, List<ListingCacheEntry>> popularityTree = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Orderings all = new Orderings();
+    private final ConcurrentSkipListMap<IndexKey<Long>, ListingCacheEntry> popularityTree = new ConcurrentSkipListMap<>();
+    // Filled for every constant up front and never resized, so readers can share them without locking
+    private final Map<Category, Orderings> byCategory = new EnumMap<>(Category.class);
+    private final Map<ListingCondition, Orderings> byCondition = new EnumMap<>(ListingCondition.class);
+    // Created only for sellers with at least one cached listing and dropped again when they have none
+    private final ConcurrentHashMap<Long, SellerOrdering> bySeller = new ConcurrentHashMap<>();
+
+    public BPlusTreeIndex() {
+        for (Category category : Category.values()) {
+            byCategory.put(category, new Orderings());
+        }
+        for (ListingCondition condition : ListingCondition.values()) {
+            byCondition.put(condition, new Orderings());
+        }
+    }
 
     @Override
     public synchronized void insert(ListingCacheEntry entry) {
         entriesById.put(entry.getListingId(), entry);
-        priceTree.computeIfAbsent(entry.getPrice(), k -> new ArrayList<>()).add(entry);
-        createdTree.computeIfAbsent(entry.getCreatedDate(), k -> new ArrayList<>()).add(entry);
-        popularityTree.computeIfAbsent(entry.getPopularityScore(), k -> new ArrayList<>()).add(entry);
+        all.put(entry);
+        popularityTree.put(popularityKey(entry), entry);
+        if (entry.getCategory() != null) {
+            byCategory.get(entry.getCategory()).put(entry);
+        }
+        if (entry.getCondition() != null) {
+            byCondition.get(entry.getCondition()).put(entry);
+        }
+        if (entry.getSellerId() != null) {
+            bySeller.computeIfAbsent(entry.getSellerId(), id -> new SellerOrdering()).put(entry);
+        }
     }
 
     @Override
@@ -29,56 +62,206 @@ public class BPlusTreeIndex implements ListingIndex {
         if (removed == null) {
             return;
         }
-        removeFromBucket(priceTree, removed.getPrice(), removed);
-        removeFromBucket(createdTree, removed.getCreatedDate(), removed);
-        removeFromBucket(popularityTree, removed.getPopularityScore(), removed);
+        all.remove(removed);
+        popularityTree.remove(popularityKey(removed));
+        if (removed.getCategory() != null) {
+            byCategory.get(removed.getCategory()).remove(removed);
+        }
+        if (removed.getCondition() != null) {
+            byCondition.get(removed.getCondition()).remove(removed);
+        }
+        if (removed.getSellerId() != null) {
+            SellerOrdering seller = bySeller.get(removed.getSellerId());
+            if (seller != null && seller.remove(removed) == 0) {
+                bySeller.remove(removed.getSellerId());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void replace(ListingCacheEntry entry) {
+        remove(entry.getListingId());
+        if (entry.isActive()) {
+            insert(entry);
+        }
     }
 
     @Override
     public synchronized void rebuild(List<ListingCacheEntry> entries) {
         entriesById.clear();
-        priceTree.clear();
-        createdTree.clear();
+        all.clear();
         popularityTree.clear();
+        byCategory.values().forEach(Orderings::clear);
+        byCondition.values().forEach(Orderings::clear);
+        bySeller.clear();
         entries.forEach(this::insert);
     }
 
     @Override
-    public synchronized List<ListingCacheEntry> fetchLatest(int limit) {
-        return slice(createdTree.descendingMap().values(), limit);
+    public List<ListingCacheEntry> fetchLatest(int limit) {
+        return all.latest(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestAfter(LocalDateTime createdDate, long listingId, int limit) {
+        return slice(all.createdTree.headMap(new IndexKey<>(createdDate, listingId), false).descendingMap().values(), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopular(int limit) {
+        return slice(popularityTree.descendingMap().values(), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopularAfter(long popularityScore, long listingId, int limit) {
+        return slice(popularityTree.headMap(new IndexKey<>(popularityScore, listingId), false).descendingMap().values(), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRange(BigDecimal min, BigDecimal max, int limit) {
+        return all.priceRange(min, max, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRangeAfter(BigDecimal min, BigDecimal max, BigDecimal price, long listingId, int limit) {
+        long afterCents = PriceCentsIndex.ceilCents(price);
+        if (afterCents < PriceCentsIndex.ceilCents(min)) {
+            return fetchByPriceRange(min, max, limit);
+        }
+        return all.priceIndex.rangeAfter(afterCents, listingId, PriceCentsIndex.floorCents(max), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCategory(Category category, int limit) {
+        return byCategory.get(category).latest(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByCategoryAndPriceRange(Category category, BigDecimal min, BigDecimal max, int limit) {
+        return byCategory.get(category).priceRange(min, max, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCondition(ListingCondition condition, int limit) {
+        return byCondition.get(condition).latest(limit);
     }
 
     @Override
-    public synchronized List<ListingCacheEntry> fetchPopular(int limit) {
-        return slice(popularityTree.values(), limit);
+    public List<ListingCacheEntry> fetchByConditionAndPriceRange(ListingCondition condition, BigDecimal min, BigDecimal max, int limit) {
+        return byCondition.get(condition).priceRange(min, max, limit);
     }
 
     @Override
-    public synchronized List<ListingCacheEntry> fetchByPriceRange(BigDecimal min, BigDecimal max, int limit) {
-        return slice(priceTree.subMap(min, true, max, true).values(), limit);
+    public List<ListingCacheEntry> fetchLatestBySeller(Long sellerId, int limit) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null ? slice(seller.createdTree.descendingMap().values(), limit) : new ArrayList<>();
     }
 
-    private List<ListingCacheEntry> slice(Iterable<List<ListingCacheEntry>> buckets, int limit) {
+    @Override
+    public List<ListingCacheEntry> fetchLatestBySellerAfter(Long sellerId, LocalDateTime createdDate, long listingId, int limit) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null
+                ? slice(seller.createdTree.headMap(new IndexKey<>(createdDate, listingId), false).descendingMap().values(), limit)
+                : new ArrayList<>();
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchCreatedAfter(LocalDateTime after, int limit) {
+        return slice(all.createdTree.tailMap(IndexKey.highest(after), false).values(), limit);
+    }
+
+    @Override
+    public int size() {
+        return all.size;
+    }
+
+    @Override
+    public int countByCategory(Category category) {
+        return byCategory.get(category).size;
+    }
+
+    @Override
+    public int countByCondition(ListingCondition condition) {
+        return byCondition.get(condition).size;
+    }
+
+    @Override
+    public int countBySeller(Long sellerId) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null ? seller.size : 0;
+    }
+
+    private static List<ListingCacheEntry> slice(Collection<ListingCacheEntry> entries, int limit) {
         List<ListingCacheEntry> result = new ArrayList<>(Math.min(limit, 64));
-        for (List<ListingCacheEntry> bucket : buckets) {
-            for (ListingCacheEntry entry : bucket) {
-                result.add(entry);
-                if (result.size() >= limit) {
-                    return result;
-                }
+        for (ListingCacheEntry entry : entries) {
+            if (result.size() >= limit) {
+                break;
             }
+            result.add(entry);
         }
         return result;
     }
 
-    private void removeFromBucket(ConcurrentSkipListMap<?, List<ListingCacheEntry>> tree, Object key, ListingCacheEntry entry) {
-        List<ListingCacheEntry> bucket = tree.get(key);
-        if (bucket == null) {
-            return;
+    private static IndexKey<LocalDateTime> createdKey(ListingCacheEntry entry) {
+        return new IndexKey<>(entry.getCreatedDate(), entry.getListingId());
+    }
+
+    private static IndexKey<Long> popularityKey(ListingCacheEntry entry) {
+        return new IndexKey<>(entry.getPopularityScore(), entry.getListingId());
+    }
+
+    // Created-date and price orderings over one subset of the cache (everything, or one category/condition)
+    private static final class Orderings {
+        private final PriceCentsIndex priceIndex = new PriceCentsIndex();
+        private final ConcurrentSkipListMap<IndexKey<LocalDateTime>, ListingCacheEntry> createdTree = new ConcurrentSkipListMap<>();
+        // Only written under the index monitor; ConcurrentSkipListMap.size() would be a full traversal
+        private volatile int size;
+
+        void put(ListingCacheEntry entry) {
+            priceIndex.insert(entry.getPriceCents(), entry.getListingId(), entry);
+            if (createdTree.put(createdKey(entry), entry) == null) {
+                size++;
+            }
+        }
+
+        void remove(ListingCacheEntry entry) {
+            priceIndex.remove(entry.getPriceCents(), entry.getListingId());
+            if (createdTree.remove(createdKey(entry)) != null) {
+                size--;
+            }
+        }
+
+        void clear() {
+            priceIndex.clear();
+            createdTree.clear();
+            size = 0;
+        }
+
+        List<ListingCacheEntry> latest(int limit) {
+            return slice(createdTree.descendingMap().values(), limit);
+        }
+
+        List<ListingCacheEntry> priceRange(BigDecimal min, BigDecimal max, int limit) {
+            return priceIndex.range(PriceCentsIndex.ceilCents(min), PriceCentsIndex.floorCents(max), limit);
+        }
+    }
+
+    // Sellers only need newest-first paging, so they skip the price index every Orderings carries
+    private static final class SellerOrdering {
+        private final ConcurrentSkipListMap<IndexKey<LocalDateTime>, ListingCacheEntry> createdTree = new ConcurrentSkipListMap<>();
+        private volatile int size;
+
+        void put(ListingCacheEntry entry) {
+            if (createdTree.put(createdKey(entry), entry) == null) {
+                size++;
+            }
         }
-        bucket.remove(entry);
-        if (bucket.isEmpty()) {
-            tree.remove(key);
+
+        int remove(ListingCacheEntry entry) {
+            if (createdTree.remove(createdKey(entry)) != null) {
+                size--;
+            }
+            return size;
         }
     }
 }
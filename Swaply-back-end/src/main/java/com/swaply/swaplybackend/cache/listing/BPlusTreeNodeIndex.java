@@ -0,0 +1,298 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ListingIndex backed by node-based {@link BPlusTree}s keyed by {@link IndexKey}, so range and
+ * top-N scans walk fat leaves instead of chasing skip-list nodes. Writers serialize on the
+ * instance monitor; each tree validates its optimistic readers against its own writes only, so a
+ * {@link #replace}, which removes from and inserts into several trees, is not isolated from readers.
+ */
+public class BPlusTreeNodeIndex implements ListingIndex {
+
+    private final Map<Long, ListingCacheEntry> entriesById = new ConcurrentHashMap<>();
+    private final Orderings all;
+    private final BPlusTree<IndexKey<Long>, ListingCacheEntry> popularityTree;
+    // Filled for every constant up front and never resized, so readers can share them without locking
+    private final Map<Category, Orderings> byCategory = new EnumMap<>(Category.class);
+    private final Map<ListingCondition, Orderings> byCondition = new EnumMap<>(ListingCondition.class);
+    // Created only for sellers with at least one cached listing and dropped again when they have none
+    private final Map<Long, SellerOrdering> bySeller = new ConcurrentHashMap<>();
+    private final int order;
+
+    public BPlusTreeNodeIndex(int order) {
+        this.order = order;
+        this.all = new Orderings(order);
+        this.popularityTree = new BPlusTree<>(order);
+        for (Category category : Category.values()) {
+            byCategory.put(category, new Orderings(order));
+        }
+        for (ListingCondition condition : ListingCondition.values()) {
+            byCondition.put(condition, new Orderings(order));
+        }
+    }
+
+    @Override
+    public synchronized void insert(ListingCacheEntry entry) {
+        entriesById.put(entry.getListingId(), entry);
+        all.insert(entry);
+        popularityTree.insert(popularityKey(entry), entry);
+        if (entry.getCategory() != null) {
+            byCategory.get(entry.getCategory()).insert(entry);
+        }
+        if (entry.getCondition() != null) {
+            byCondition.get(entry.getCondition()).insert(entry);
+        }
+        if (entry.getSellerId() != null) {
+            bySeller.computeIfAbsent(entry.getSellerId(), id -> new SellerOrdering(order)).insert(entry);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long listingId) {
+        ListingCacheEntry removed = entriesById.remove(listingId);
+        if (removed == null) {
+            return;
+        }
+        all.remove(removed);
+        popularityTree.remove(popularityKey(removed), candidate -> candidate == removed);
+        if (removed.getCategory() != null) {
+            byCategory.get(removed.getCategory()).remove(removed);
+        }
+        if (removed.getCondition() != null) {
+            byCondition.get(removed.getCondition()).remove(removed);
+        }
+        if (removed.getSellerId() != null) {
+            SellerOrdering seller = bySeller.get(removed.getSellerId());
+            if (seller != null && seller.remove(removed) == 0) {
+                bySeller.remove(removed.getSellerId());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void replace(ListingCacheEntry entry) {
+        remove(entry.getListingId());
+        if (entry.isActive()) {
+            insert(entry);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(List<ListingCacheEntry> entries) {
+        List<BPlusTree.Pair<IndexKey<Long>, ListingCacheEntry>> byPopularity = new ArrayList<>(entries.size());
+        Map<Category, List<ListingCacheEntry>> categoryEntries = new EnumMap<>(Category.class);
+        Map<ListingCondition, List<ListingCacheEntry>> conditionEntries = new EnumMap<>(ListingCondition.class);
+        Map<Long, List<ListingCacheEntry>> sellerEntries = new HashMap<>();
+        entriesById.clear();
+        for (ListingCacheEntry entry : entries) {
+            entriesById.put(entry.getListingId(), entry);
+            byPopularity.add(new BPlusTree.Pair<>(popularityKey(entry), entry));
+            if (entry.getCategory() != null) {
+                categoryEntries.computeIfAbsent(entry.getCategory(), c -> new ArrayList<>()).add(entry);
+            }
+            if (entry.getCondition() != null) {
+                conditionEntries.computeIfAbsent(entry.getCondition(), c -> new ArrayList<>()).add(entry);
+            }
+            if (entry.getSellerId() != null) {
+                sellerEntries.computeIfAbsent(entry.getSellerId(), id -> new ArrayList<>()).add(entry);
+            }
+        }
+        all.rebuild(entries);
+        popularityTree.rebuild(byPopularity);
+        byCategory.forEach((category, orderings) -> orderings.rebuild(categoryEntries.getOrDefault(category, List.of())));
+        byCondition.forEach((condition, orderings) -> orderings.rebuild(conditionEntries.getOrDefault(condition, List.of())));
+        bySeller.clear();
+        sellerEntries.forEach((sellerId, listings) -> {
+            SellerOrdering seller = new SellerOrdering(order);
+            seller.rebuild(listings);
+            bySeller.put(sellerId, seller);
+        });
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatest(int limit) {
+        return all.createdTree.scanDescending(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestAfter(LocalDateTime createdDate, long listingId, int limit) {
+        return all.createdTree.scanDescendingBefore(new IndexKey<>(createdDate, listingId), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopular(int limit) {
+        return popularityTree.scanDescending(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopularAfter(long popularityScore, long listingId, int limit) {
+        return popularityTree.scanDescendingBefore(new IndexKey<>(popularityScore, listingId), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRange(BigDecimal min, BigDecimal max, int limit) {
+        return all.priceRange(min, max, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRangeAfter(BigDecimal min, BigDecimal max, BigDecimal price, long listingId, int limit) {
+        IndexKey<BigDecimal> after = new IndexKey<>(price, listingId);
+        if (after.compareTo(IndexKey.lowest(min)) < 0) {
+            return fetchByPriceRange(min, max, limit);
+        }
+        return all.priceTree.rangeSearchAfter(after, IndexKey.highest(max), limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCategory(Category category, int limit) {
+        return byCategory.get(category).createdTree.scanDescending(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByCategoryAndPriceRange(Category category, BigDecimal min, BigDecimal max, int limit) {
+        return byCategory.get(category).priceRange(min, max, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCondition(ListingCondition condition, int limit) {
+        return byCondition.get(condition).createdTree.scanDescending(limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByConditionAndPriceRange(ListingCondition condition, BigDecimal min, BigDecimal max, int limit) {
+        return byCondition.get(condition).priceRange(min, max, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestBySeller(Long sellerId, int limit) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null ? seller.createdTree.scanDescending(limit) : new ArrayList<>();
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestBySellerAfter(Long sellerId, LocalDateTime createdDate, long listingId, int limit) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null
+                ? seller.createdTree.scanDescendingBefore(new IndexKey<>(createdDate, listingId), limit)
+                : new ArrayList<>();
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchCreatedAfter(LocalDateTime after, int limit) {
+        return all.createdTree.rangeSearchAfter(IndexKey.highest(after), IndexKey.highest(LocalDateTime.MAX), limit);
+    }
+
+    @Override
+    public int size() {
+        return all.size;
+    }
+
+    @Override
+    public int countByCategory(Category category) {
+        return byCategory.get(category).size;
+    }
+
+    @Override
+    public int countByCondition(ListingCondition condition) {
+        return byCondition.get(condition).size;
+    }
+
+    @Override
+    public int countBySeller(Long sellerId) {
+        SellerOrdering seller = bySeller.get(sellerId);
+        return seller != null ? seller.size : 0;
+    }
+
+    private static IndexKey<BigDecimal> priceKey(ListingCacheEntry entry) {
+        return new IndexKey<>(entry.getPrice(), entry.getListingId());
+    }
+
+    private static IndexKey<LocalDateTime> createdKey(ListingCacheEntry entry) {
+        return new IndexKey<>(entry.getCreatedDate(), entry.getListingId());
+    }
+
+    private static IndexKey<Long> popularityKey(ListingCacheEntry entry) {
+        return new IndexKey<>(entry.getPopularityScore(), entry.getListingId());
+    }
+
+    // Created-date and price trees over one subset of the cache (everything, or one category/condition)
+    private static final class Orderings {
+        private final BPlusTree<IndexKey<BigDecimal>, ListingCacheEntry> priceTree;
+        private final BPlusTree<IndexKey<LocalDateTime>, ListingCacheEntry> createdTree;
+        // Only written under the index monitor
+        private volatile int size;
+
+        Orderings(int order) {
+            this.priceTree = new BPlusTree<>(order);
+            this.createdTree = new BPlusTree<>(order);
+        }
+
+        void insert(ListingCacheEntry entry) {
+            priceTree.insert(priceKey(entry), entry);
+            createdTree.insert(createdKey(entry), entry);
+            size++;
+        }
+
+        void remove(ListingCacheEntry entry) {
+            priceTree.remove(priceKey(entry), candidate -> candidate == entry);
+            createdTree.remove(createdKey(entry), candidate -> candidate == entry);
+            size--;
+        }
+
+        void rebuild(List<ListingCacheEntry> entries) {
+            List<BPlusTree.Pair<IndexKey<BigDecimal>, ListingCacheEntry>> byPrice = new ArrayList<>(entries.size());
+            List<BPlusTree.Pair<IndexKey<LocalDateTime>, ListingCacheEntry>> byCreated = new ArrayList<>(entries.size());
+            for (ListingCacheEntry entry : entries) {
+                byPrice.add(new BPlusTree.Pair<>(priceKey(entry), entry));
+                byCreated.add(new BPlusTree.Pair<>(createdKey(entry), entry));
+            }
+            priceTree.rebuild(byPrice);
+            createdTree.rebuild(byCreated);
+            size = entries.size();
+        }
+
+        List<ListingCacheEntry> priceRange(BigDecimal min, BigDecimal max, int limit) {
+            return priceTree.rangeSearch(IndexKey.lowest(min), IndexKey.highest(max), limit);
+        }
+    }
+
+    // Sellers only need newest-first paging, so they skip the price tree every Orderings carries
+    private static final class SellerOrdering {
+        private final BPlusTree<IndexKey<LocalDateTime>, ListingCacheEntry> createdTree;
+        private volatile int size;
+
+        SellerOrdering(int order) {
+            this.createdTree = new BPlusTree<>(order);
+        }
+
+        void insert(ListingCacheEntry entry) {
+            createdTree.insert(createdKey(entry), entry);
+            size++;
+        }
+
+        int remove(ListingCacheEntry entry) {
+            createdTree.remove(createdKey(entry), candidate -> candidate == entry);
+            return --size;
+        }
+
+        void rebuild(List<ListingCacheEntry> entries) {
+            List<BPlusTree.Pair<IndexKey<LocalDateTime>, ListingCacheEntry>> byCreated = new ArrayList<>(entries.size());
+            for (ListingCacheEntry entry : entries) {
+                byCreated.add(new BPlusTree.Pair<>(createdKey(entry), entry));
+            }
+            createdTree.rebuild(byCreated);
+            size = entries.size();
+        }
+    }
+}
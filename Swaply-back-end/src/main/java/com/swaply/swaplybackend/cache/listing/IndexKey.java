@@ -0,0 +1,22 @@
+package com.swaply.swaplybackend.cache.listing;
+
+/**
+ * Sort key of an index slot: the ordering attribute with the listing id as tie-break. Keeping
+ * every slot unique gives a total order, which is what lets a cursor resume at an exact position.
+ */
+public record IndexKey<K extends Comparable<? super K>>(K key, long listingId) implements Comparable<IndexKey<K>> {
+
+    public static <K extends Comparable<? super K>> IndexKey<K> lowest(K key) {
+        return new IndexKey<>(key, Long.MIN_VALUE);
+    }
+
+    public static <K extends Comparable<? super K>> IndexKey<K> highest(K key) {
+        return new IndexKey<>(key, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(IndexKey<K> other) {
+        int cmp = key.compareTo(other.key);
+        return cmp != 0 ? cmp : Long.compare(listingId, other.listingId);
+    }
+}
@@ -1,31 +1,90 @@
 package com.swaply.swaplybackend.cache.listing;
 
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
+/**
+ * Sort and filter keys of one cached listing plus its payload. The payload is either the DTO
+ * itself or, with off-heap storage, a handle into an {@link OffHeapListingStore} that is decoded
+ * into a fresh DTO on every {@link #getListingDto()}. The listing's pre-encoded JSON, when
+ * supplied, is kept the same way so feed responses can be assembled without re-serializing.
+ */
 public class ListingCacheEntry {
 
     private final Long listingId;
     private final BigDecimal price;
+    private final long priceCents;
     private final LocalDateTime createdDate;
+    private final Category category;
+    private final ListingCondition condition;
+    private final Long sellerId;
+    private final boolean active;
     private final long popularityScore;
     private final long createdEpoch;
     private final ListingDto listingDto;
+    private final OffHeapListingStore payloads;
+    private final int payloadHandle;
+    private final byte[] json;
+    private final int jsonHandle;
 
     public ListingCacheEntry(ListingDto listingDto, long popularityScore) {
+        this(listingDto, popularityScore, null, null);
+    }
+
+    /**
+     * With a non-null store the DTO and its JSON are written into it and not retained.
+     */
+    public ListingCacheEntry(ListingDto listingDto, long popularityScore, byte[] json, OffHeapListingStore payloads) {
         this.listingId = listingDto.getListingId();
         this.price = listingDto.getPrice();
+        this.priceCents = PriceCentsIndex.ceilCents(price);
         LocalDateTime created = listingDto.getCreatedDate();
         if (created == null) {
             created = listingDto.getUpdatedDate();
         }
         this.createdDate = created != null ? created : LocalDateTime.now(ZoneOffset.UTC);
+        this.category = listingDto.getCategory();
+        this.condition = listingDto.getCondition();
+        this.sellerId = listingDto.getUserId();
+        this.active = listingDto.getStatus() == ListingStatus.ACTIVE;
         this.popularityScore = popularityScore;
         this.createdEpoch = this.createdDate.toEpochSecond(ZoneOffset.UTC);
-        this.listingDto = listingDto;
+        this.payloads = payloads;
+        this.payloadHandle = payloads != null ? payloads.write(listingDto) : -1;
+        this.listingDto = payloads != null ? null : listingDto;
+        this.jsonHandle = payloads != null && json != null ? payloads.writeBytes(json) : -1;
+        this.json = payloads != null ? null : json;
+    }
+
+    private ListingCacheEntry(ListingCacheEntry source, long popularityScore) {
+        this.listingId = source.listingId;
+        this.price = source.price;
+        this.priceCents = source.priceCents;
+        this.createdDate = source.createdDate;
+        this.category = source.category;
+        this.condition = source.condition;
+        this.sellerId = source.sellerId;
+        this.active = source.active;
+        this.popularityScore = popularityScore;
+        this.createdEpoch = source.createdEpoch;
+        this.listingDto = source.listingDto;
+        this.payloads = source.payloads;
+        this.payloadHandle = source.payloadHandle;
+        this.json = source.json;
+        this.jsonHandle = source.jsonHandle;
+    }
+
+    /**
+     * Same listing re-keyed under a new popularity score, sharing the existing payload.
+     */
+    public ListingCacheEntry withPopularityScore(long score) {
+        return new ListingCacheEntry(this, score);
     }
 
     public Long getListingId() {
@@ -36,10 +95,26 @@ public class ListingCacheEntry {
         return price;
     }
 
+    public long getPriceCents() {
+        return priceCents;
+    }
+
     public LocalDateTime getCreatedDate() {
         return createdDate;
     }
 
+    public Category getCategory() {
+        return category;
+    }
+
+    public ListingCondition getCondition() {
+        return condition;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
     public long getPopularityScore() {
         return popularityScore;
     }
@@ -48,7 +123,35 @@ public class ListingCacheEntry {
         return createdEpoch;
     }
 
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Tells the off-heap store that this entry's records are no longer referenced by the cache.
+     * Re-ranked copies share the same records, so only the entry being dropped for good calls this.
+     */
+    public void releasePayload() {
+        if (payloads == null) {
+            return;
+        }
+        payloads.release(payloadHandle);
+        if (jsonHandle >= 0) {
+            payloads.release(jsonHandle);
+        }
+    }
+
     public ListingDto getListingDto() {
-        return listingDto;
+        return listingDto != null ? listingDto : payloads.read(payloadHandle);
+    }
+
+    /**
+     * The listing serialized as a JSON object, or null if the entry was built without one.
+     */
+    public byte[] getJson() {
+        if (json != null) {
+            return json;
+        }
+        return jsonHandle >= 0 ? payloads.readBytes(jsonHandle) : null;
     }
 }
@@ -0,0 +1,274 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * One bitset per facet value (every category, every condition and every price bucket), with a
+ * listing's id as its bit. Counting the facets of a result set is then a single pass over the
+ * result's words, AND-ing each against every facet's word and adding up the popcounts, instead
+ * of one query per facet. Ids outside [0, Integer.MAX_VALUE) are not indexed, as in
+ * {@code ListingQueryEngine}. Writers take the write lock; counts run under the read lock.
+ */
+public class ListingFacetIndex {
+
+    // Lower bounds of the price buckets in cents; the last bucket is open-ended
+    static final long[] PRICE_BUCKET_CENTS = {0, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000};
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final ListingCondition[] CONDITIONS = ListingCondition.values();
+    private static final long[] NO_WORDS = new long[0];
+
+    private final StampedLock lock = new StampedLock();
+    // Rows: all indexed listings, then each category, each condition and each price bucket
+    private final long[][] bits = new long[1 + CATEGORIES.length + CONDITIONS.length + PRICE_BUCKET_CENTS.length][];
+
+    public ListingFacetIndex() {
+        Arrays.fill(bits, NO_WORDS);
+    }
+
+    public void index(long listingId, Category category, ListingCondition condition, BigDecimal price) {
+        if (!fits(listingId)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            clearLocked((int) listingId);
+            setLocked(0, (int) listingId);
+            if (category != null) {
+                setLocked(categoryRow(category), (int) listingId);
+            }
+            if (condition != null) {
+                setLocked(conditionRow(condition), (int) listingId);
+            }
+            if (price != null) {
+                setLocked(priceRow(bucketOf(price)), (int) listingId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long listingId) {
+        if (!fits(listingId)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            clearLocked((int) listingId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(bits, NO_WORDS);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Facet counts over every indexed listing.
+     */
+    public Facets countAll() {
+        long stamp = lock.readLock();
+        try {
+            return countLocked(bits[0]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Facet counts over the given listings; ids that are not indexed are ignored.
+     */
+    public Facets count(Collection<Long> listingIds) {
+        long[] result = NO_WORDS;
+        for (Long listingId : listingIds) {
+            if (listingId != null && fits(listingId)) {
+                int word = (int) (listingId >>> 6);
+                if (word >= result.length) {
+                    result = Arrays.copyOf(result, Math.max(word + 1, result.length * 2));
+                }
+                result[word] |= 1L << listingId;
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return countLocked(result);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Facets countLocked(long[] result) {
+        int[] counts = new int[bits.length];
+        int words = Math.min(result.length, bits[0].length);
+        for (int w = 0; w < words; w++) {
+            long word = result[w] & bits[0][w];
+            if (word == 0) {
+                continue;
+            }
+            counts[0] += Long.bitCount(word);
+            for (int row = 1; row < bits.length; row++) {
+                long[] facet = bits[row];
+                if (w < facet.length) {
+                    counts[row] += Long.bitCount(word & facet[w]);
+                }
+            }
+        }
+        return toFacets(counts);
+    }
+
+    private Facets toFacets(int[] counts) {
+        Map<Category, Integer> categories = new EnumMap<>(Category.class);
+        for (Category category : CATEGORIES) {
+            categories.put(category, counts[categoryRow(category)]);
+        }
+        Map<ListingCondition, Integer> conditions = new EnumMap<>(ListingCondition.class);
+        for (ListingCondition condition : CONDITIONS) {
+            conditions.put(condition, counts[conditionRow(condition)]);
+        }
+        List<PriceBucket> prices = new ArrayList<>(PRICE_BUCKET_CENTS.length);
+        for (int bucket = 0; bucket < PRICE_BUCKET_CENTS.length; bucket++) {
+            prices.add(new PriceBucket(bucketMin(bucket), bucketMax(bucket), counts[priceRow(bucket)]));
+        }
+        return new Facets(counts[0], categories, conditions, prices);
+    }
+
+    private void setLocked(int row, int bit) {
+        int word = bit >>> 6;
+        if (word >= bits[row].length) {
+            bits[row] = Arrays.copyOf(bits[row], Math.max(word + 1, bits[row].length * 2));
+        }
+        bits[row][word] |= 1L << bit;
+    }
+
+    private void clearLocked(int bit) {
+        int word = bit >>> 6;
+        for (long[] row : bits) {
+            if (word < row.length) {
+                row[word] &= ~(1L << bit);
+            }
+        }
+    }
+
+    static int bucketOf(BigDecimal price) {
+        long cents = PriceCentsIndex.floorCents(price);
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_CENTS.length && cents >= PRICE_BUCKET_CENTS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Same boundaries as {@link #PRICE_BUCKET_CENTS}, for callers that count buckets elsewhere.
+     */
+    public static BigDecimal bucketMin(int bucket) {
+        return BigDecimal.valueOf(PRICE_BUCKET_CENTS[bucket], 2);
+    }
+
+    public static BigDecimal bucketMax(int bucket) {
+        return bucket + 1 < PRICE_BUCKET_CENTS.length ? BigDecimal.valueOf(PRICE_BUCKET_CENTS[bucket + 1], 2) : null;
+    }
+
+    public static int bucketCount() {
+        return PRICE_BUCKET_CENTS.length;
+    }
+
+    /**
+     * One {@code SUM(CASE ...)} per price bucket over {@code priceColumn}, comma separated, so
+     * grouped database queries count with exactly these boundaries.
+     */
+    public static String priceBucketSums(String priceColumn) {
+        StringBuilder sql = new StringBuilder();
+        for (int bucket = 0; bucket < PRICE_BUCKET_CENTS.length; bucket++) {
+            BigDecimal max = bucketMax(bucket);
+            String lower = bucket > 0 ? priceColumn + " >= " + bucketMin(bucket).stripTrailingZeros().toPlainString() : null;
+            String upper = max != null ? priceColumn + " < " + max.stripTrailingZeros().toPlainString() : null;
+            sql.append(bucket > 0 ? ", " : "").append("SUM(CASE WHEN ")
+                    .append(lower != null && upper != null ? lower + " AND " + upper : lower != null ? lower : upper)
+                    .append(" THEN 1 ELSE 0 END)");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Facets from grouped rows of (category, condition, one count per price bucket), as returned
+     * by queries built on {@link #priceBucketSums}.
+     */
+    public static Facets fromRows(List<Object[]> rows) {
+        Map<Category, Integer> categories = new EnumMap<>(Category.class);
+        for (Category category : CATEGORIES) {
+            categories.put(category, 0);
+        }
+        Map<ListingCondition, Integer> conditions = new EnumMap<>(ListingCondition.class);
+        for (ListingCondition condition : CONDITIONS) {
+            conditions.put(condition, 0);
+        }
+        int[] buckets = new int[PRICE_BUCKET_CENTS.length];
+        int total = 0;
+        for (Object[] row : rows) {
+            int rowTotal = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                int count = row[2 + bucket] != null ? ((Number) row[2 + bucket]).intValue() : 0;
+                buckets[bucket] += count;
+                rowTotal += count;
+            }
+            total += rowTotal;
+            if (row[0] != null) {
+                categories.merge((Category) row[0], rowTotal, Integer::sum);
+            }
+            if (row[1] != null) {
+                conditions.merge((ListingCondition) row[1], rowTotal, Integer::sum);
+            }
+        }
+        List<PriceBucket> prices = new ArrayList<>(buckets.length);
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            prices.add(new PriceBucket(bucketMin(bucket), bucketMax(bucket), buckets[bucket]));
+        }
+        return new Facets(total, categories, conditions, prices);
+    }
+
+    private static boolean fits(long listingId) {
+        return listingId >= 0 && listingId < Integer.MAX_VALUE;
+    }
+
+    private static int categoryRow(Category category) {
+        return 1 + category.ordinal();
+    }
+
+    private static int conditionRow(ListingCondition condition) {
+        return 1 + CATEGORIES.length + condition.ordinal();
+    }
+
+    private static int priceRow(int bucket) {
+        return 1 + CATEGORIES.length + CONDITIONS.length + bucket;
+    }
+
+    /**
+     * {@code total} is how many listings of the result set are indexed at all.
+     */
+    public record Facets(int total, Map<Category, Integer> categories, Map<ListingCondition, Integer> conditions,
+                         List<PriceBucket> prices) {
+    }
+
+    /**
+     * Prices from {@code min} inclusive up to {@code max} exclusive; {@code max} is null for the last bucket.
+     */
+    public record PriceBucket(BigDecimal min, BigDecimal max, int listings) {
+    }
+}
@@ -1,18 +1,70 @@
 package com.swaply.swaplybackend.cache.listing;
 
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Ordered views over cached listings. Every ordering is total on (key, listingId), so the
+ * {@code ...After} variants resume strictly after the last position a client has seen. Each
+ * {@link Category} and {@link ListingCondition} also gets its own created-date and price
+ * orderings, so filtered pages are a scan of the matching sub-index rather than a filter over
+ * the whole cache. Each seller gets a created-date ordering of their listings as well. The counts
+ * are maintained on every write, so a query planner can compare sub-index sizes without scanning them.
+ */
 public interface ListingIndex {
     void insert(ListingCacheEntry entry);
 
     void remove(Long listingId);
 
+    /**
+     * Drops any entry already held for the same listing id and, if the new entry is ACTIVE,
+     * indexes it under its current keys. Non-ACTIVE entries are only removed. This is atomic with
+     * respect to other writers only: readers do not lock, so a read that overlaps a replace may
+     * miss the listing, or, in a scan already under way when its keys change, see it at both its
+     * old and new position.
+     */
+    void replace(ListingCacheEntry entry);
+
     void rebuild(List<ListingCacheEntry> entries);
 
     List<ListingCacheEntry> fetchLatest(int limit);
 
+    List<ListingCacheEntry> fetchLatestAfter(LocalDateTime createdDate, long listingId, int limit);
+
     List<ListingCacheEntry> fetchPopular(int limit);
 
+    List<ListingCacheEntry> fetchPopularAfter(long popularityScore, long listingId, int limit);
+
     List<ListingCacheEntry> fetchByPriceRange(BigDecimal min, BigDecimal max, int limit);
+
+    List<ListingCacheEntry> fetchByPriceRangeAfter(BigDecimal min, BigDecimal max, BigDecimal price, long listingId, int limit);
+
+    List<ListingCacheEntry> fetchLatestByCategory(Category category, int limit);
+
+    List<ListingCacheEntry> fetchByCategoryAndPriceRange(Category category, BigDecimal min, BigDecimal max, int limit);
+
+    List<ListingCacheEntry> fetchLatestByCondition(ListingCondition condition, int limit);
+
+    List<ListingCacheEntry> fetchByConditionAndPriceRange(ListingCondition condition, BigDecimal min, BigDecimal max, int limit);
+
+    List<ListingCacheEntry> fetchLatestBySeller(Long sellerId, int limit);
+
+    List<ListingCacheEntry> fetchLatestBySellerAfter(Long sellerId, LocalDateTime createdDate, long listingId, int limit);
+
+    /**
+     * Listings created strictly after {@code after}, oldest first.
+     */
+    List<ListingCacheEntry> fetchCreatedAfter(LocalDateTime after, int limit);
+
+    int size();
+
+    int countByCategory(Category category);
+
+    int countByCondition(ListingCondition condition);
+
+    int countBySeller(Long sellerId);
 }
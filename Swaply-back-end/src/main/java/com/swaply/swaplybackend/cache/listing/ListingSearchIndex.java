@@ -0,0 +1,237 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over listing titles and descriptions. Text is lower-cased and split on anything
+ * that is not a letter or digit, and every term keeps one posting per listing weighted by where it
+ * occurred, a title hit counting {@value #TITLE_WEIGHT} times a description hit. A query token
+ * matches its own term and, once it is {@value #MIN_PREFIX} characters long, every term it is a
+ * prefix of, so half-typed words still find results. A listing has to match every query token;
+ * matches are ranked by summed idf-weighted scores, newest listing id first on ties.
+ * Writers serialize on the instance monitor; readers walk the concurrent maps without locking.
+ */
+public class ListingSearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int MIN_PREFIX = 2;
+    // A term that merely starts with the query token is a weaker match than the word itself
+    private static final double PREFIX_DISCOUNT = 0.5;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> termsById = new ConcurrentHashMap<>();
+
+    public synchronized void index(long listingId, String title, String description) {
+        remove(listingId);
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(listingId, weight));
+        termsById.put(listingId, weights.keySet());
+    }
+
+    public synchronized void remove(long listingId) {
+        Set<String> terms = termsById.remove(listingId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> listings = postings.get(term);
+            if (listings != null) {
+                listings.remove(listingId);
+                if (listings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        termsById.clear();
+    }
+
+    public int size() {
+        return termsById.size();
+    }
+
+    /**
+     * Ranked listing ids for {@code query}, skipping the first {@code offset} matches. The total
+     * counts every match, so callers can page without searching again.
+     */
+    public Result search(String query, int offset, int limit) {
+        Map<Long, Double> scores = score(query, null, termsById.size());
+        if (scores.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        List<Long> page = new ArrayList<>();
+        for (Map.Entry<Long, Double> entry : top(scores, offset, limit)) {
+            page.add(entry.getKey());
+        }
+        return new Result(page, scores.size());
+    }
+
+    /**
+     * Every listing {@link #search} would return for {@code query}, unranked.
+     */
+    public Set<Long> matchingIds(String query) {
+        return score(query, null, termsById.size()).keySet();
+    }
+
+    /**
+     * How many listings of this index hold each term the tokens of {@code query} expand to. Summed
+     * over the shards of a partitioned catalogue, this gives the idf every shard must rank with.
+     */
+    Map<String, Integer> documentFrequencies(String query) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : new LinkedHashSet<>(tokenize(query))) {
+            for (Map.Entry<String, Map<Long, Integer>> term : matchingTerms(token)) {
+                frequencies.put(term.getKey(), term.getValue().size());
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * The best {@code limit} matches with their scores, ranked with catalogue-wide statistics
+     * rather than this index's own, so scores from different shards are comparable.
+     */
+    Ranked rank(String query, ToIntFunction<String> documentFrequency, int indexed, int limit) {
+        Map<Long, Double> scores = score(query, documentFrequency, indexed);
+        List<Map.Entry<Long, Double>> top = top(scores, 0, limit);
+        long[] listingIds = new long[top.size()];
+        double[] topScores = new double[top.size()];
+        for (int i = 0; i < top.size(); i++) {
+            listingIds[i] = top.get(i).getKey();
+            topScores[i] = top.get(i).getValue();
+        }
+        return new Ranked(listingIds, topScores, scores.size());
+    }
+
+    // A null documentFrequency means this index is the whole catalogue
+    private Map<Long, Double> score(String query, ToIntFunction<String> documentFrequency, int indexedListings) {
+        List<TokenMatch> matches = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(tokenize(query))) {
+            TokenMatch match = new TokenMatch(token, matchingTerms(token));
+            if (match.postings == 0) {
+                return Map.of();
+            }
+            matches.add(match);
+        }
+        if (matches.isEmpty()) {
+            return Map.of();
+        }
+        // Rarest token first, so every later token only scores listings that are still candidates
+        // (by catalogue-wide counts when sharded, so every shard adds token scores up in the same order)
+        matches.sort(Comparator.comparingLong(match -> match.frequency(documentFrequency)));
+        int indexed = Math.max(1, indexedListings);
+        Map<Long, Double> scores = null;
+        for (TokenMatch match : matches) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> term : match.terms) {
+                Map<Long, Integer> listings = term.getValue();
+                int frequency = documentFrequency != null ? documentFrequency.applyAsInt(term.getKey()) : listings.size();
+                double idf = Math.log(1 + (double) indexed / Math.max(1, frequency));
+                double factor = term.getKey().equals(match.token) ? idf : idf * PREFIX_DISCOUNT;
+                for (Map.Entry<Long, Integer> posting : listings.entrySet()) {
+                    if (scores == null || scores.containsKey(posting.getKey())) {
+                        // Several expansions of one token ("phone", "phones") count once, at their best
+                        tokenScores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+                    }
+                }
+            }
+            if (scores != null) {
+                Map<Long, Double> previous = scores;
+                tokenScores.replaceAll((listingId, score) -> score + previous.get(listingId));
+            }
+            scores = tokenScores;
+            if (scores.isEmpty()) {
+                return Map.of();
+            }
+        }
+        return scores;
+    }
+
+    private List<Map.Entry<String, Map<Long, Integer>>> matchingTerms(String token) {
+        if (token.length() < MIN_PREFIX) {
+            Map<Long, Integer> exact = postings.get(token);
+            return exact != null ? List.of(Map.entry(token, exact)) : List.of();
+        }
+        return new ArrayList<>(postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet());
+    }
+
+    private static List<Map.Entry<Long, Double>> top(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        if (limit <= 0 || offset >= wanted) {
+            return List.of();
+        }
+        Comparator<Map.Entry<Long, Double>> best = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey())
+                .reversed();
+        // Bounded heap with the weakest kept entry on top, so only offset + limit matches are ever ordered
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(wanted + 1, best.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(best);
+        return ranked.subList(offset, ranked.size());
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public record Result(List<Long> listingIds, int total) {
+    }
+
+    // Parallel arrays, best first; total counts every match, not just the ones returned
+    record Ranked(long[] listingIds, double[] scores, int total) {
+    }
+
+    private static final class TokenMatch {
+        private final String token;
+        private final List<Map.Entry<String, Map<Long, Integer>>> terms;
+        private final long postings;
+
+        private TokenMatch(String token, List<Map.Entry<String, Map<Long, Integer>>> terms) {
+            this.token = token;
+            this.terms = terms;
+            this.postings = terms.stream().mapToLong(term -> term.getValue().size()).sum();
+        }
+
+        private long frequency(ToIntFunction<String> documentFrequency) {
+            return documentFrequency == null ? postings
+                    : terms.stream().mapToLong(term -> documentFrequency.applyAsInt(term.getKey())).sum();
+        }
+    }
+}
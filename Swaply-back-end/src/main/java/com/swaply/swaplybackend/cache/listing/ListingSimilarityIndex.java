@@ -0,0 +1,306 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Precomputed "similar listings": for every listing, the {@code k} nearest other listings of the
+ * same category, scored by title overlap (Jaccard similarity of title words, estimated from
+ * {@value #HASHES}-slot MinHash signatures) and by how close the prices are on a log scale.
+ * Candidates are not compared all-pairs: a listing is only scored against listings that share a
+ * MinHash band with it (likely title overlap) and its nearest neighbours by price within the
+ * category. Signatures and neighbour rows are computed in parallel on a fork-join pool, each task
+ * writing its own rows. The result is immutable and held in flat primitive arrays: sorted listing
+ * ids, and {@code k} neighbour positions and scores per listing.
+ */
+public final class ListingSimilarityIndex {
+
+    public static final ListingSimilarityIndex EMPTY = new ListingSimilarityIndex(new long[0], 0, new int[0], new float[0]);
+
+    static final int HASHES = 64;
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = HASHES / BANDS;
+    // Price neighbours on each side within the category that are always scored
+    private static final int PRICE_WINDOW = 16;
+    // A band bucket this crowded is a word every title shares, not evidence of similarity
+    private static final int MAX_BUCKET = 256;
+    private static final int LEAF_SIZE = 128;
+    private static final double TITLE_WEIGHT = 0.7;
+    private static final double PRICE_WEIGHT = 0.3;
+    // Prices a factor of four or more apart contribute nothing
+    private static final double PRICE_RANGE = Math.log(4);
+    private static final long[] SEEDS = new SplittableRandom(0x5eedL).longs(HASHES).toArray();
+
+    private final long[] listingIds;
+    private final int k;
+    private final int[] neighbours;
+    private final float[] scores;
+
+    private ListingSimilarityIndex(long[] listingIds, int k, int[] neighbours, float[] scores) {
+        this.listingIds = listingIds;
+        this.k = k;
+        this.neighbours = neighbours;
+        this.scores = scores;
+    }
+
+    public static ListingSimilarityIndex build(List<Item> items, int k, ForkJoinPool pool) {
+        if (items.isEmpty() || k <= 0) {
+            return EMPTY;
+        }
+        Item[] sorted = items.toArray(Item[]::new);
+        Arrays.sort(sorted, Comparator.comparingLong(Item::listingId));
+        int n = sorted.length;
+        long[] ids = new long[n];
+        int[][] signatures = new int[n][];
+        double[] logPrices = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = sorted[i].listingId();
+            logPrices[i] = sorted[i].price() != null && sorted[i].price().signum() > 0
+                    ? Math.log(sorted[i].price().doubleValue())
+                    : Double.NaN;
+        }
+        pool.invoke(new RangeTask(0, n, i -> signatures[i] = signature(sorted[i].title())));
+
+        // Candidate sources, built once and only read by the parallel phase
+        Map<Long, int[]> bandBuckets = bandBuckets(sorted, signatures);
+        Map<Category, int[]> byPrice = new HashMap<>();
+        int[] pricePosition = new int[n];
+        Map<Category, List<Integer>> members = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            members.computeIfAbsent(sorted[i].category(), c -> new ArrayList<>()).add(i);
+        }
+        Comparator<Integer> cheapestFirst = Comparator
+                .comparingDouble((Integer i) -> Double.isNaN(logPrices[i]) ? Double.MAX_VALUE : logPrices[i])
+                .thenComparingInt(i -> i);
+        members.forEach((category, positions) -> {
+            positions.sort(cheapestFirst);
+            int[] ordered = new int[positions.size()];
+            for (int p = 0; p < ordered.length; p++) {
+                ordered[p] = positions.get(p);
+                pricePosition[ordered[p]] = p;
+            }
+            byPrice.put(category, ordered);
+        });
+
+        int[] neighbours = new int[n * k];
+        float[] scores = new float[n * k];
+        Arrays.fill(neighbours, -1);
+        pool.invoke(new RangeTask(0, n, i -> {
+            int[] candidates = candidates(i, sorted, signatures, bandBuckets, byPrice.get(sorted[i].category()), pricePosition[i]);
+            int kept = 0;
+            for (int candidate : candidates) {
+                double score = TITLE_WEIGHT * jaccard(signatures[i], signatures[candidate])
+                        + PRICE_WEIGHT * priceCloseness(logPrices[i], logPrices[candidate]);
+                kept = offer(neighbours, scores, i * k, k, kept, candidate, (float) score, ids);
+            }
+        }));
+        return new ListingSimilarityIndex(ids, k, neighbours, scores);
+    }
+
+    /**
+     * Up to {@code limit} neighbour ids of {@code listingId}, most similar first; empty when the
+     * listing was not part of the build.
+     */
+    public long[] neighbours(long listingId, int limit) {
+        int position = Arrays.binarySearch(listingIds, listingId);
+        if (position < 0) {
+            return new long[0];
+        }
+        int row = position * k;
+        int count = 0;
+        while (count < Math.min(limit, k) && neighbours[row + count] >= 0) {
+            count++;
+        }
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = listingIds[neighbours[row + i]];
+        }
+        return result;
+    }
+
+    float score(long listingId, int rank) {
+        int position = Arrays.binarySearch(listingIds, listingId);
+        return position >= 0 && rank < k ? scores[position * k + rank] : 0f;
+    }
+
+    public int size() {
+        return listingIds.length;
+    }
+
+    // Insert into a row kept sorted by score descending, then by listing id descending (newer first)
+    private static int offer(int[] neighbours, float[] scores, int row, int k, int kept, int candidate, float score, long[] ids) {
+        if (score <= 0) {
+            return kept;
+        }
+        int at = kept;
+        while (at > 0 && (scores[row + at - 1] < score
+                || (scores[row + at - 1] == score && ids[neighbours[row + at - 1]] < ids[candidate]))) {
+            at--;
+        }
+        if (at >= k) {
+            return kept;
+        }
+        int moved = Math.min(kept, k - 1) - at;
+        System.arraycopy(neighbours, row + at, neighbours, row + at + 1, moved);
+        System.arraycopy(scores, row + at, scores, row + at + 1, moved);
+        neighbours[row + at] = candidate;
+        scores[row + at] = score;
+        return Math.min(kept + 1, k);
+    }
+
+    private static int[] candidates(int self, Item[] items, int[][] signatures, Map<Long, int[]> bandBuckets,
+                                    int[] byPrice, int pricePosition) {
+        int[] found = new int[2 * PRICE_WINDOW + 8];
+        int size = 0;
+        int from = Math.max(0, pricePosition - PRICE_WINDOW);
+        int to = Math.min(byPrice.length, pricePosition + PRICE_WINDOW + 1);
+        for (int p = from; p < to; p++) {
+            if (size == found.length) {
+                found = Arrays.copyOf(found, size * 2);
+            }
+            found[size++] = byPrice[p];
+        }
+        for (int band = 0; band < BANDS; band++) {
+            int[] bucket = bandBuckets.get(bandKey(items[self].category(), signatures[self], band));
+            if (bucket == null) {
+                continue;
+            }
+            if (size + bucket.length > found.length) {
+                found = Arrays.copyOf(found, Math.max(found.length * 2, size + bucket.length));
+            }
+            System.arraycopy(bucket, 0, found, size, bucket.length);
+            size += bucket.length;
+        }
+        Arrays.sort(found, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            // Band keys fold the category in, but a hash collision must not cross categories
+            if (found[i] != self && (unique == 0 || found[unique - 1] != found[i])
+                    && items[found[i]].category() == items[self].category()) {
+                found[unique++] = found[i];
+            }
+        }
+        return Arrays.copyOf(found, unique);
+    }
+
+    private static Map<Long, int[]> bandBuckets(Item[] items, int[][] signatures) {
+        Map<Long, int[]> buckets = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            if (signatures[i] == null) {
+                continue;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(items[i].category(), signatures[i], band);
+                int size = sizes.merge(key, 1, Integer::sum);
+                if (size > MAX_BUCKET) {
+                    buckets.remove(key);
+                    continue;
+                }
+                int[] bucket = buckets.get(key);
+                bucket = bucket == null ? new int[1] : Arrays.copyOf(bucket, size);
+                bucket[size - 1] = i;
+                buckets.put(key, bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private static long bandKey(Category category, int[] signature, int band) {
+        if (signature == null) {
+            return Long.MIN_VALUE;
+        }
+        long key = (category != null ? category.ordinal() + 1 : 0) * 31L + band;
+        for (int r = band * ROWS_PER_BAND; r < (band + 1) * ROWS_PER_BAND; r++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[r];
+        }
+        return key;
+    }
+
+    /**
+     * MinHash signature of the title's distinct words, or null for a title without any.
+     */
+    static int[] signature(String title) {
+        List<String> tokens = ListingSearchIndex.tokenize(title);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String token : tokens) {
+            long base = token.hashCode();
+            for (int h = 0; h < HASHES; h++) {
+                int value = (int) (mix(base ^ SEEDS[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        int equal = 0;
+        for (int h = 0; h < HASHES; h++) {
+            if (a[h] == b[h]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    private static double priceCloseness(double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return 0;
+        }
+        return Math.max(0, 1 - Math.abs(a - b) / PRICE_RANGE);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    public record Item(long listingId, Category category, BigDecimal price, String title) {
+    }
+
+    // Applies an action to every index in [from, to), splitting until ranges are small enough
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Autocomplete trie over the words of listing titles and over category names. Every word node
+ * counts the listings whose title contains it, and every node remembers the heaviest word below
+ * it, so a lookup can skip whole branches that cannot beat the suggestions it already holds.
+ * Lookups tolerate typos: the typed text is matched against trie paths with a bounded
+ * Levenshtein distance (none for one or two characters, one up to five, two beyond that), and a
+ * path within that distance of the whole text makes every word below it a completion. Closer
+ * matches rank first, then more listings. Dynamic-programming rows live in a per-thread scratch
+ * buffer, so a lookup allocates little beyond the suggestions it returns.
+ */
+public class ListingSuggestIndex {
+
+    static final int MAX_KEY_LENGTH = 32;
+
+    private static final ThreadLocal<int[]> ROWS =
+            ThreadLocal.withInitial(() -> new int[(MAX_KEY_LENGTH + 1) * (MAX_KEY_LENGTH + 1)]);
+
+    private final StampedLock lock = new StampedLock();
+    private final Node root = new Node();
+    // What each listing contributed, so it can be taken back out; only touched under the write lock
+    private final Map<Long, Indexed> byListing = new HashMap<>();
+
+    public void index(long listingId, String title, Category category) {
+        long stamp = lock.writeLock();
+        try {
+            removeLocked(listingId);
+            List<String> words = new ArrayList<>();
+            for (String word : new LinkedHashSet<>(ListingSearchIndex.tokenize(title))) {
+                if (word.length() <= MAX_KEY_LENGTH) {
+                    words.add(word);
+                    adjust(word, 1, null);
+                }
+            }
+            if (category != null) {
+                adjust(categoryKey(category), 1, category);
+            }
+            byListing.put(listingId, new Indexed(words.toArray(String[]::new), category));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long listingId) {
+        long stamp = lock.writeLock();
+        try {
+            removeLocked(listingId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            byListing.clear();
+            root.size = 0;
+            root.labels = Node.NO_LABELS;
+            root.children = Node.NO_CHILDREN;
+            root.best = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Up to {@code limit} completions of {@code text}. When it holds several words the last one
+     * is completed on its own as well, since category names are the only multi-word keys.
+     */
+    public List<Suggestion> suggest(String text, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        TopK top = new TopK(limit);
+        long stamp = lock.readLock();
+        try {
+            walk(query, top);
+            int lastSpace = query.lastIndexOf(' ');
+            if (lastSpace >= 0) {
+                walk(query.substring(lastSpace + 1), top);
+            }
+            return top.toSuggestions();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void removeLocked(long listingId) {
+        Indexed indexed = byListing.remove(listingId);
+        if (indexed == null) {
+            return;
+        }
+        for (String word : indexed.words) {
+            adjust(word, -1, null);
+        }
+        if (indexed.category != null) {
+            adjust(categoryKey(indexed.category), -1, indexed.category);
+        }
+    }
+
+    private void adjust(String key, int delta, Category category) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = delta > 0 ? node.childOrCreate(key.charAt(i)) : node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        if (category != null) {
+            node.category = category;
+            node.categoryCount += delta;
+        } else {
+            node.word = key;
+            node.count += delta;
+        }
+        // Refresh subtree maxima on the way back up and unlink branches that no longer lead anywhere
+        for (int i = key.length(); i >= 0; i--) {
+            Node current = path[i];
+            current.best = current.weight();
+            for (int c = 0; c < current.size; c++) {
+                current.best = Math.max(current.best, current.children[c].best);
+            }
+            if (i > 0 && current.best == 0 && current.size == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private void walk(String query, TopK top) {
+        int width = query.length() + 1;
+        int[] rows = ROWS.get();
+        for (int j = 0; j < width; j++) {
+            rows[j] = j;
+        }
+        descend(root, 0, query, rows, maxDistance(query.length()), Integer.MAX_VALUE, 0, top);
+    }
+
+    /**
+     * {@code matched} is the smallest distance at which this path or one of its prefixes matched
+     * the whole query (MAX_VALUE if none has), and {@code rowMin} the smallest entry of this
+     * node's row, a lower bound for any longer path. Rows are only extended while they could
+     * still improve on {@code matched}.
+     */
+    private void descend(Node node, int depth, String query, int[] rows, int maxDistance, int matched, int rowMin, TopK top) {
+        int width = query.length() + 1;
+        boolean aligning = rowMin < matched && rowMin <= maxDistance && depth < MAX_KEY_LENGTH;
+        for (int c = 0; c < node.size; c++) {
+            Node child = node.children[c];
+            int childMatched = matched;
+            int childRowMin = rowMin;
+            if (aligning) {
+                int previous = depth * width;
+                int current = previous + width;
+                char label = node.labels[c];
+                rows[current] = rows[previous] + 1;
+                childRowMin = rows[current];
+                for (int j = 1; j < width; j++) {
+                    int substitution = rows[previous + j - 1] + (query.charAt(j - 1) == label ? 0 : 1);
+                    int value = Math.min(substitution, Math.min(rows[previous + j], rows[current + j - 1]) + 1);
+                    rows[current + j] = value;
+                    childRowMin = Math.min(childRowMin, value);
+                }
+                if (rows[current + width - 1] <= maxDistance) {
+                    childMatched = Math.min(childMatched, rows[current + width - 1]);
+                }
+            }
+            int lowerBound = Math.min(childMatched, childRowMin);
+            if (lowerBound > maxDistance || !top.mayAccept(lowerBound, child.best)) {
+                continue;
+            }
+            if (childMatched <= maxDistance) {
+                top.offer(child, childMatched);
+            }
+            descend(child, depth + 1, query, rows, maxDistance, childMatched, childRowMin, top);
+        }
+    }
+
+    static int maxDistance(int length) {
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String query = text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return query.length() > MAX_KEY_LENGTH ? query.substring(0, MAX_KEY_LENGTH) : query;
+    }
+
+    private static String categoryKey(Category category) {
+        return normalize(category.getDisplayName());
+    }
+
+    /**
+     * A word from listing titles, or a category when {@code category} is set; {@code listings}
+     * is how many active listings carry it.
+     */
+    public record Suggestion(String text, Category category, int listings) {
+    }
+
+    private record Indexed(String[] words, Category category) {
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Children sorted by label; the arrays may be longer than size
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        private String word;
+        private int count;
+        private Category category;
+        private int categoryCount;
+        // Heaviest weight() in this subtree, this node included
+        private int best;
+
+        int weight() {
+            return count + categoryCount;
+        }
+
+        Node child(char label) {
+            int slot = Arrays.binarySearch(labels, 0, size, label);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int slot = Arrays.binarySearch(labels, 0, size, label);
+            if (slot >= 0) {
+                return children[slot];
+            }
+            int insertAt = -slot - 1;
+            if (size == labels.length) {
+                int capacity = Math.max(2, size * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, insertAt, labels, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node child = new Node();
+            labels[insertAt] = label;
+            children[insertAt] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int slot = Arrays.binarySearch(labels, 0, size, label);
+            if (slot < 0) {
+                return;
+            }
+            System.arraycopy(labels, slot + 1, labels, slot, size - slot - 1);
+            System.arraycopy(children, slot + 1, children, slot, size - slot - 1);
+            size--;
+            children[size] = null;
+        }
+
+        Suggestion toSuggestion() {
+            return categoryCount > 0
+                    ? new Suggestion(category.getDisplayName(), category, categoryCount)
+                    : new Suggestion(word, null, count);
+        }
+
+        String text() {
+            return categoryCount > 0 ? category.getDisplayName() : word;
+        }
+    }
+
+    // Best suggestions so far, kept sorted in plain arrays: closer first, then heavier, then alphabetical
+    private static final class TopK {
+        private final Node[] nodes;
+        private final int[] distances;
+        private int size;
+
+        TopK(int limit) {
+            this.nodes = new Node[limit];
+            this.distances = new int[limit];
+        }
+
+        boolean mayAccept(int distance, int weight) {
+            if (size < nodes.length) {
+                return true;
+            }
+            int worstDistance = distances[size - 1];
+            return distance < worstDistance || (distance == worstDistance && weight >= nodes[size - 1].weight());
+        }
+
+        void offer(Node node, int distance) {
+            if (node.weight() == 0) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    if (distances[i] <= distance) {
+                        return;
+                    }
+                    System.arraycopy(nodes, i + 1, nodes, i, size - i - 1);
+                    System.arraycopy(distances, i + 1, distances, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+            int at = size;
+            while (at > 0 && before(node, distance, nodes[at - 1], distances[at - 1])) {
+                at--;
+            }
+            if (at >= nodes.length) {
+                return;
+            }
+            int moved = Math.min(size, nodes.length - 1) - at;
+            System.arraycopy(nodes, at, nodes, at + 1, moved);
+            System.arraycopy(distances, at, distances, at + 1, moved);
+            nodes[at] = node;
+            distances[at] = distance;
+            size = Math.min(size + 1, nodes.length);
+        }
+
+        private static boolean before(Node node, int distance, Node other, int otherDistance) {
+            if (distance != otherDistance) {
+                return distance < otherDistance;
+            }
+            if (node.weight() != other.weight()) {
+                return node.weight() > other.weight();
+            }
+            return node.text().compareTo(other.text()) < 0;
+        }
+
+        List<Suggestion> toSuggestions() {
+            List<Suggestion> suggestions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                suggestions.add(nodes[i].toSuggestion());
+            }
+            return suggestions;
+        }
+    }
+}
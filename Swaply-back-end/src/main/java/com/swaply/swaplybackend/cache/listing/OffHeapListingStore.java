@@ -0,0 +1,264 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Append-only slab store for serialized {@link ListingDto}s in direct ByteBuffers. A record is
+ * addressed by an int handle (slab number in the high bits, 8-byte aligned offset in the low
+ * bits), so the heap only holds the handle. Space is never reclaimed in place: records the
+ * cache has stopped referencing are only counted through {@link #release}, each cache generation
+ * owns its own store, and a full rebuild starts a fresh one while the old slabs are released with
+ * the generation that referenced them.
+ *
+ * Appends are serialized on the store's monitor, since writers for different cache shards share a
+ * generation's store; reads use absolute gets and are safe from any thread once the handle has
+ * been safely published.
+ */
+public class OffHeapListingStore {
+
+    private static final int OFFSET_BITS = 19;
+    private static final int ALIGNMENT = 8;
+    // 2^19 aligned offsets of 8 bytes
+    static final int SLAB_BYTES = (1 << OFFSET_BITS) * ALIGNMENT;
+    private static final int MAX_SLABS = 1 << (Integer.SIZE - 1 - OFFSET_BITS);
+    private static final int NULL_MARKER = -1;
+
+    // Replaced (never mutated) when a slab is added, so readers never see a half-grown directory
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private ByteBuffer tail;
+    private long recordsWritten;
+    private long deadBytes;
+
+    public int write(ListingDto dto) {
+        Writer writer = new Writer();
+        writer.putLong(dto.getListingId());
+        writer.putString(dto.getTitle());
+        writer.putString(dto.getDescription());
+        writer.putDecimal(dto.getPrice());
+        writer.putInt(dto.getCategory() != null ? dto.getCategory().ordinal() : NULL_MARKER);
+        writer.putInt(dto.getCondition() != null ? dto.getCondition().ordinal() : NULL_MARKER);
+        writer.putString(dto.getImageUrl());
+        writer.putInt(dto.getStatus() != null ? dto.getStatus().ordinal() : NULL_MARKER);
+        writer.putLong(dto.getUserId());
+        writer.putString(dto.getUserName());
+        writer.putString(dto.getSellerUsername());
+        writer.putString(dto.getSellerProfileImageUrl());
+        writer.putDateTime(dto.getCreatedDate());
+        writer.putDateTime(dto.getUpdatedDate());
+        return append(writer.bytes, writer.size);
+    }
+
+    /**
+     * Stores an opaque byte record, e.g. a pre-encoded JSON fragment.
+     */
+    public int writeBytes(byte[] bytes) {
+        return append(bytes, bytes.length);
+    }
+
+    public byte[] readBytes(int handle) {
+        ByteBuffer slab = slabs[handle >>> OFFSET_BITS];
+        int offset = offsetOf(handle);
+        byte[] bytes = new byte[slab.getInt(offset)];
+        slab.get(offset + Integer.BYTES, bytes);
+        return bytes;
+    }
+
+    public ListingDto read(int handle) {
+        ByteBuffer slab = slabs[handle >>> OFFSET_BITS];
+        Reader reader = new Reader(slab, offsetOf(handle) + Integer.BYTES);
+        ListingDto dto = new ListingDto();
+        dto.setListingId(reader.getLong());
+        dto.setTitle(reader.getString());
+        dto.setDescription(reader.getString());
+        dto.setPrice(reader.getDecimal());
+        int category = reader.getInt();
+        dto.setCategory(category != NULL_MARKER ? Category.values()[category] : null);
+        int condition = reader.getInt();
+        dto.setCondition(condition != NULL_MARKER ? ListingCondition.values()[condition] : null);
+        dto.setImageUrl(reader.getString());
+        int status = reader.getInt();
+        dto.setStatus(status != NULL_MARKER ? ListingStatus.values()[status] : null);
+        dto.setUserId(reader.getLong());
+        dto.setUserName(reader.getString());
+        dto.setSellerUsername(reader.getString());
+        dto.setSellerProfileImageUrl(reader.getString());
+        dto.setCreatedDate(reader.getDateTime());
+        dto.setUpdatedDate(reader.getDateTime());
+        return dto;
+    }
+
+    public long allocatedBytes() {
+        return (long) slabs.length * SLAB_BYTES;
+    }
+
+    public synchronized long usedBytes() {
+        ByteBuffer[] current = slabs;
+        return current.length == 0 ? 0 : (long) (current.length - 1) * SLAB_BYTES + tail.position();
+    }
+
+    // Includes records superseded by later writes for the same listing
+    public synchronized long recordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Marks a record as no longer referenced. Its bytes stay in the slab, but are counted in
+     * {@link #deadBytes()} so the owner can tell when a rebuild would reclaim enough to be worth it.
+     */
+    public synchronized void release(int handle) {
+        ByteBuffer slab = slabs[handle >>> OFFSET_BITS];
+        deadBytes += alignedRecordBytes(slab.getInt(offsetOf(handle)));
+    }
+
+    public synchronized long deadBytes() {
+        return deadBytes;
+    }
+
+    private static int alignedRecordBytes(int length) {
+        return (Integer.BYTES + length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static int offsetOf(int handle) {
+        return (handle & ((1 << OFFSET_BITS) - 1)) * ALIGNMENT;
+    }
+
+    private synchronized int append(byte[] bytes, int length) {
+        int recordBytes = Integer.BYTES + length;
+        if (recordBytes > SLAB_BYTES) {
+            throw new IllegalArgumentException("Listing payload of " + length + " bytes does not fit a slab");
+        }
+        if (tail == null || tail.remaining() < recordBytes) {
+            if (slabs.length == MAX_SLABS) {
+                throw new IllegalStateException("Off-heap listing store is full");
+            }
+            tail = ByteBuffer.allocateDirect(SLAB_BYTES);
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[grown.length - 1] = tail;
+            slabs = grown;
+        }
+        int offset = tail.position();
+        tail.putInt(length).put(bytes, 0, length);
+        int aligned = (tail.position() + ALIGNMENT - 1) & -ALIGNMENT;
+        tail.position(Math.min(aligned, SLAB_BYTES));
+        recordsWritten++;
+        return ((slabs.length - 1) << OFFSET_BITS) | (offset / ALIGNMENT);
+    }
+
+    // Grows a heap scratch array per write, so encoding runs outside the append lock
+    private static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void putLong(Long value) {
+            ensure(Long.BYTES + 1);
+            bytes[size++] = (byte) (value == null ? 0 : 1);
+            long raw = value == null ? 0L : value;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (raw >>> shift);
+            }
+        }
+
+        void putBytes(byte[] value) {
+            putInt(value.length);
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putInt(NULL_MARKER);
+            } else {
+                putBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void putDecimal(BigDecimal value) {
+            if (value == null) {
+                putInt(NULL_MARKER);
+            } else {
+                putBytes(value.unscaledValue().toByteArray());
+                putInt(value.scale());
+            }
+        }
+
+        void putDateTime(LocalDateTime value) {
+            putLong(value != null ? value.toEpochSecond(ZoneOffset.UTC) : null);
+            putInt(value != null ? value.getNano() : 0);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer slab;
+        private int position;
+
+        Reader(ByteBuffer slab, int position) {
+            this.slab = slab;
+            this.position = position;
+        }
+
+        int getInt() {
+            int value = slab.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        Long getLong() {
+            boolean present = slab.get(position) != 0;
+            long value = slab.getLong(position + 1);
+            position += Long.BYTES + 1;
+            return present ? value : null;
+        }
+
+        byte[] getBytes(int length) {
+            byte[] value = new byte[length];
+            slab.get(position, value);
+            position += length;
+            return value;
+        }
+
+        String getString() {
+            int length = getInt();
+            return length == NULL_MARKER ? null : new String(getBytes(length), StandardCharsets.UTF_8);
+        }
+
+        BigDecimal getDecimal() {
+            int length = getInt();
+            if (length == NULL_MARKER) {
+                return null;
+            }
+            BigInteger unscaled = new BigInteger(getBytes(length));
+            return new BigDecimal(unscaled, getInt());
+        }
+
+        LocalDateTime getDateTime() {
+            Long epochSecond = getLong();
+            int nano = getInt();
+            return epochSecond != null ? LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC) : null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * Price ordering over (price in cents, listingId) held in primitive arrays. Keys live in sorted
+ * fixed-size blocks of parallel {@code long[]} columns, with a small directory of blocks on top,
+ * so a range scan is a binary search followed by a linear walk over {@code long}s: no
+ * BigDecimal comparisons and no boxed keys. Reads are optimistic in the same way as
+ * {@link BPlusTree}.
+ */
+public class PriceCentsIndex {
+
+    private static final int BLOCK_CAPACITY = 128;
+    // Bulk-loaded blocks keep headroom so inserts between rebuilds rarely split
+    private static final int BULK_LOAD_FILL = BLOCK_CAPACITY * 3 / 4;
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 4;
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(2);
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE).movePointLeft(2);
+
+    private final StampedLock lock = new StampedLock();
+    private Block[] blocks = new Block[8];
+    private int blockCount;
+
+    /**
+     * Smallest whole number of cents that is not below {@code price}, clamped to the long range.
+     */
+    public static long ceilCents(BigDecimal price) {
+        return toCents(price, RoundingMode.CEILING);
+    }
+
+    /**
+     * Largest whole number of cents that is not above {@code price}, clamped to the long range.
+     */
+    public static long floorCents(BigDecimal price) {
+        return toCents(price, RoundingMode.FLOOR);
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode rounding) {
+        if (price.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return price.setScale(2, rounding).unscaledValue().longValue();
+    }
+
+    public void insert(long cents, long listingId, ListingCacheEntry entry) {
+        long stamp = lock.writeLock();
+        try {
+            if (blockCount == 0) {
+                insertBlock(0, new Block());
+            }
+            int b = blockFor(cents, listingId);
+            Block block = blocks[b];
+            if (block.size == BLOCK_CAPACITY) {
+                Block upper = block.splitUpperHalf();
+                insertBlock(b + 1, upper);
+                if (compare(cents, listingId, upper.cents[0], upper.ids[0]) >= 0) {
+                    block = upper;
+                }
+            }
+            block.insert(block.lowerBound(cents, listingId), cents, listingId, entry);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long cents, long listingId) {
+        long stamp = lock.writeLock();
+        try {
+            if (blockCount == 0) {
+                return;
+            }
+            int b = blockFor(cents, listingId);
+            Block block = blocks[b];
+            int pos = block.lowerBound(cents, listingId);
+            if (pos < block.size && block.cents[pos] == cents && block.ids[pos] == listingId) {
+                block.removeAt(pos);
+                if (block.size == 0) {
+                    removeBlock(b);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            blocks = new Block[8];
+            blockCount = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void rebuild(List<ListingCacheEntry> entries) {
+        ListingCacheEntry[] sorted = entries.toArray(new ListingCacheEntry[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(ListingCacheEntry::getPriceCents)
+                .thenComparingLong(ListingCacheEntry::getListingId));
+        Block[] built = new Block[Math.max(8, sorted.length / BULK_LOAD_FILL + 1)];
+        int count = 0;
+        for (int from = 0; from < sorted.length; from += BULK_LOAD_FILL) {
+            Block block = new Block();
+            for (int i = from; i < Math.min(sorted.length, from + BULK_LOAD_FILL); i++) {
+                block.insert(block.size, sorted[i].getPriceCents(), sorted[i].getListingId(), sorted[i]);
+            }
+            built[count++] = block;
+        }
+        long stamp = lock.writeLock();
+        try {
+            blocks = built;
+            blockCount = count;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Entries priced between the two bounds, inclusive, cheapest first.
+     */
+    public List<ListingCacheEntry> range(long minCents, long maxCents, int limit) {
+        if (minCents > maxCents) {
+            return List.of();
+        }
+        return read(stamp -> collect(minCents, Long.MIN_VALUE, true, maxCents, limit, stamp));
+    }
+
+    /**
+     * Entries strictly after (cents, listingId) and priced at most {@code maxCents}.
+     */
+    public List<ListingCacheEntry> rangeAfter(long cents, long listingId, long maxCents, int limit) {
+        if (cents > maxCents) {
+            return List.of();
+        }
+        return read(stamp -> collect(cents, listingId, false, maxCents, limit, stamp));
+    }
+
+    private List<ListingCacheEntry> read(LongFunction<List<ListingCacheEntry>> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                List<ListingCacheEntry> result = reader.apply(stamp);
+                if (result != null && lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ignored) {
+                // Torn view of a block a writer was shifting; retry
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(0L);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<ListingCacheEntry> collect(long fromCents, long fromId, boolean inclusive, long maxCents,
+                                            int limit, long stamp) {
+        List<ListingCacheEntry> result = new ArrayList<>(Math.min(limit, 64));
+        Block[] directory = blocks;
+        int count = blockCount;
+        if (count == 0) {
+            return result;
+        }
+        int b = blockFor(directory, count, fromCents, fromId);
+        int pos = directory[b].lowerBound(fromCents, fromId);
+        for (; b < count; b++, pos = 0) {
+            if (stamp != 0L && !lock.validate(stamp)) {
+                return null;
+            }
+            Block block = directory[b];
+            long[] cents = block.cents;
+            long[] ids = block.ids;
+            for (int i = pos; i < block.size; i++) {
+                if (cents[i] > maxCents) {
+                    return result;
+                }
+                if (!inclusive && cents[i] == fromCents && ids[i] == fromId) {
+                    continue;
+                }
+                result.add(block.entries[i]);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private int blockFor(long cents, long listingId) {
+        return blockFor(blocks, blockCount, cents, listingId);
+    }
+
+    // First block whose last key is >= the probe, or the last block when the probe is past them all
+    private static int blockFor(Block[] directory, int count, long cents, long listingId) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Block block = directory[mid];
+            int last = block.size - 1;
+            if (compare(block.cents[last], block.ids[last], cents, listingId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void insertBlock(int at, Block block) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        System.arraycopy(blocks, at, blocks, at + 1, blockCount - at);
+        blocks[at] = block;
+        blockCount++;
+    }
+
+    private void removeBlock(int at) {
+        System.arraycopy(blocks, at + 1, blocks, at, blockCount - at - 1);
+        blocks[--blockCount] = null;
+    }
+
+    private static int compare(long cents, long listingId, long otherCents, long otherId) {
+        int cmp = Long.compare(cents, otherCents);
+        return cmp != 0 ? cmp : Long.compare(listingId, otherId);
+    }
+
+    private static final class Block {
+        private final long[] cents = new long[BLOCK_CAPACITY];
+        private final long[] ids = new long[BLOCK_CAPACITY];
+        private final ListingCacheEntry[] entries = new ListingCacheEntry[BLOCK_CAPACITY];
+        private int size;
+
+        private int lowerBound(long probeCents, long probeId) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(cents[mid], ids[mid], probeCents, probeId) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insert(int pos, long keyCents, long listingId, ListingCacheEntry entry) {
+            int tail = size - pos;
+            System.arraycopy(cents, pos, cents, pos + 1, tail);
+            System.arraycopy(ids, pos, ids, pos + 1, tail);
+            System.arraycopy(entries, pos, entries, pos + 1, tail);
+            cents[pos] = keyCents;
+            ids[pos] = listingId;
+            entries[pos] = entry;
+            size++;
+        }
+
+        private void removeAt(int pos) {
+            int tail = size - pos - 1;
+            System.arraycopy(cents, pos + 1, cents, pos, tail);
+            System.arraycopy(ids, pos + 1, ids, pos, tail);
+            System.arraycopy(entries, pos + 1, entries, pos, tail);
+            entries[--size] = null;
+        }
+
+        private Block splitUpperHalf() {
+            Block upper = new Block();
+            int half = size / 2;
+            int moved = size - half;
+            System.arraycopy(cents, half, upper.cents, 0, moved);
+            System.arraycopy(ids, half, upper.ids, 0, moved);
+            System.arraycopy(entries, half, upper.entries, 0, moved);
+            Arrays.fill(entries, half, size, null);
+            upper.size = moved;
+            size = half;
+            return upper;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * ListingIndex partitioned into shards by a hash of the listing id. Writes go to the one shard
+ * owning the id, so writers contend on that shard's lock only; a listing never changes shard.
+ * Reads are scatter-gather: every shard answers the query for the full limit concurrently and the
+ * sorted partial results are k-way merged on the same total ordering the shards use, which gives
+ * exactly what a single index holding everything would return. Counts are summed.
+ */
+public class ShardedListingIndex implements ListingIndex {
+
+    private static final Comparator<ListingCacheEntry> NEWEST_FIRST =
+            Comparator.comparing(ListingCacheEntry::getCreatedDate)
+                    .thenComparingLong(ListingCacheEntry::getListingId)
+                    .reversed();
+    private static final Comparator<ListingCacheEntry> OLDEST_FIRST = NEWEST_FIRST.reversed();
+    private static final Comparator<ListingCacheEntry> MOST_POPULAR_FIRST =
+            Comparator.comparingLong(ListingCacheEntry::getPopularityScore)
+                    .thenComparingLong(ListingCacheEntry::getListingId)
+                    .reversed();
+    private static final Comparator<ListingCacheEntry> CHEAPEST_FIRST =
+            Comparator.comparingLong(ListingCacheEntry::getPriceCents)
+                    .thenComparingLong(ListingCacheEntry::getListingId);
+
+    private final ListingIndex[] shards;
+    private final Executor executor;
+
+    public ShardedListingIndex(List<ListingIndex> shards, Executor executor) {
+        this.shards = shards.toArray(ListingIndex[]::new);
+        this.executor = executor;
+    }
+
+    /**
+     * The shard owning {@code listingId}; callers that lock per shard use the same partitioning.
+     */
+    public static int shardOf(long listingId, int shardCount) {
+        long z = listingId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (z ^ (z >>> 32)), shardCount);
+    }
+
+    private ListingIndex shard(long listingId) {
+        return shards[shardOf(listingId, shards.length)];
+    }
+
+    @Override
+    public void insert(ListingCacheEntry entry) {
+        shard(entry.getListingId()).insert(entry);
+    }
+
+    @Override
+    public void remove(Long listingId) {
+        shard(listingId).remove(listingId);
+    }
+
+    @Override
+    public void replace(ListingCacheEntry entry) {
+        shard(entry.getListingId()).replace(entry);
+    }
+
+    @Override
+    public void rebuild(List<ListingCacheEntry> entries) {
+        List<List<ListingCacheEntry>> partitions = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            partitions.add(new ArrayList<>(entries.size() / shards.length + 1));
+        }
+        for (ListingCacheEntry entry : entries) {
+            partitions.get(shardOf(entry.getListingId(), shards.length)).add(entry);
+        }
+        CompletableFuture<?>[] rebuilt = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            ListingIndex shard = shards[i];
+            List<ListingCacheEntry> partition = partitions.get(i);
+            rebuilt[i] = CompletableFuture.runAsync(() -> shard.rebuild(partition), executor);
+        }
+        CompletableFuture.allOf(rebuilt).join();
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatest(int limit) {
+        return merge(scatter(shard -> shard.fetchLatest(limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestAfter(LocalDateTime createdDate, long listingId, int limit) {
+        return merge(scatter(shard -> shard.fetchLatestAfter(createdDate, listingId, limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopular(int limit) {
+        return merge(scatter(shard -> shard.fetchPopular(limit)), MOST_POPULAR_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchPopularAfter(long popularityScore, long listingId, int limit) {
+        return merge(scatter(shard -> shard.fetchPopularAfter(popularityScore, listingId, limit)), MOST_POPULAR_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRange(BigDecimal min, BigDecimal max, int limit) {
+        return merge(scatter(shard -> shard.fetchByPriceRange(min, max, limit)), CHEAPEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByPriceRangeAfter(BigDecimal min, BigDecimal max, BigDecimal price, long listingId, int limit) {
+        return merge(scatter(shard -> shard.fetchByPriceRangeAfter(min, max, price, listingId, limit)), CHEAPEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCategory(Category category, int limit) {
+        return merge(scatter(shard -> shard.fetchLatestByCategory(category, limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByCategoryAndPriceRange(Category category, BigDecimal min, BigDecimal max, int limit) {
+        return merge(scatter(shard -> shard.fetchByCategoryAndPriceRange(category, min, max, limit)), CHEAPEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestByCondition(ListingCondition condition, int limit) {
+        return merge(scatter(shard -> shard.fetchLatestByCondition(condition, limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchByConditionAndPriceRange(ListingCondition condition, BigDecimal min, BigDecimal max, int limit) {
+        return merge(scatter(shard -> shard.fetchByConditionAndPriceRange(condition, min, max, limit)), CHEAPEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestBySeller(Long sellerId, int limit) {
+        return merge(scatter(shard -> shard.fetchLatestBySeller(sellerId, limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchLatestBySellerAfter(Long sellerId, LocalDateTime createdDate, long listingId, int limit) {
+        return merge(scatter(shard -> shard.fetchLatestBySellerAfter(sellerId, createdDate, listingId, limit)), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ListingCacheEntry> fetchCreatedAfter(LocalDateTime after, int limit) {
+        return merge(scatter(shard -> shard.fetchCreatedAfter(after, limit)), OLDEST_FIRST, limit);
+    }
+
+    @Override
+    public int size() {
+        return sum(ListingIndex::size);
+    }
+
+    @Override
+    public int countByCategory(Category category) {
+        return sum(shard -> shard.countByCategory(category));
+    }
+
+    @Override
+    public int countByCondition(ListingCondition condition) {
+        return sum(shard -> shard.countByCondition(condition));
+    }
+
+    @Override
+    public int countBySeller(Long sellerId) {
+        return sum(shard -> shard.countBySeller(sellerId));
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    private int sum(ToIntFunction<ListingIndex> count) {
+        int total = 0;
+        for (ListingIndex shard : shards) {
+            total += count.applyAsInt(shard);
+        }
+        return total;
+    }
+
+    // The calling thread answers for the first shard while the executor runs the rest
+    private List<List<ListingCacheEntry>> scatter(Function<ListingIndex, List<ListingCacheEntry>> query) {
+        List<CompletableFuture<List<ListingCacheEntry>>> pending = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            ListingIndex shard = shards[i];
+            pending.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<List<ListingCacheEntry>> results = new ArrayList<>(shards.length);
+        results.add(query.apply(shards[0]));
+        for (CompletableFuture<List<ListingCacheEntry>> future : pending) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    static List<ListingCacheEntry> merge(List<List<ListingCacheEntry>> sorted, Comparator<ListingCacheEntry> order, int limit) {
+        if (sorted.size() == 1) {
+            List<ListingCacheEntry> only = sorted.get(0);
+            return only.size() > limit ? new ArrayList<>(only.subList(0, limit)) : only;
+        }
+        // Heap of (list, position) cursors, one per non-empty shard result
+        PriorityQueue<int[]> heads = new PriorityQueue<>(sorted.size(),
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<ListingCacheEntry> merged = new ArrayList<>(Math.min(limit, 64));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<ListingCacheEntry> list = sorted.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+}
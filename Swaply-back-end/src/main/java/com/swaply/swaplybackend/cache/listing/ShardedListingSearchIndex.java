@@ -0,0 +1,130 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * {@link ListingSearchIndex} partitioned by listing id the same way as {@link ShardedListingIndex}.
+ * A query takes two scatter-gather rounds: the shards first report the document frequencies of the
+ * terms the query expands to, then each ranks its own matches with the summed frequencies and the
+ * catalogue size, returning its best {@code offset + limit}. Since every shard scores exactly as a
+ * single index over the whole catalogue would, merging the partial rankings by score reproduces
+ * the unsharded page. With one shard a query goes straight to it.
+ */
+public class ShardedListingSearchIndex {
+
+    private final ListingSearchIndex[] shards;
+    private final Executor executor;
+
+    public ShardedListingSearchIndex(int shardCount, Executor executor) {
+        this.shards = new ListingSearchIndex[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ListingSearchIndex();
+        }
+        this.executor = executor;
+    }
+
+    private ListingSearchIndex shard(long listingId) {
+        return shards[ShardedListingIndex.shardOf(listingId, shards.length)];
+    }
+
+    public void index(long listingId, String title, String description) {
+        shard(listingId).index(listingId, title, description);
+    }
+
+    public void remove(long listingId) {
+        shard(listingId).remove(listingId);
+    }
+
+    public void clear() {
+        for (ListingSearchIndex shard : shards) {
+            shard.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ListingSearchIndex shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public ListingSearchIndex.Result search(String query, int offset, int limit) {
+        if (shards.length == 1) {
+            return shards[0].search(query, offset, limit);
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (Map<String, Integer> shardFrequencies : scatter(shard -> shard.documentFrequencies(query))) {
+            shardFrequencies.forEach((term, count) -> frequencies.merge(term, count, Integer::sum));
+        }
+        if (frequencies.isEmpty()) {
+            return new ListingSearchIndex.Result(List.of(), 0);
+        }
+        int indexed = size();
+        int wanted = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        List<ListingSearchIndex.Ranked> ranked = scatter(shard ->
+                shard.rank(query, term -> frequencies.getOrDefault(term, 0), indexed, wanted));
+        return merge(ranked, offset, limit);
+    }
+
+    public Set<Long> matchingIds(String query) {
+        if (shards.length == 1) {
+            return shards[0].matchingIds(query);
+        }
+        Set<Long> matches = new HashSet<>();
+        scatter(shard -> shard.matchingIds(query)).forEach(matches::addAll);
+        return matches;
+    }
+
+    // Same order as a single index: higher score first, then the newer (higher) listing id
+    private static ListingSearchIndex.Result merge(List<ListingSearchIndex.Ranked> ranked, int offset, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(ranked.size(), (a, b) -> {
+            ListingSearchIndex.Ranked left = ranked.get(a[0]);
+            ListingSearchIndex.Ranked right = ranked.get(b[0]);
+            int cmp = Double.compare(right.scores()[b[1]], left.scores()[a[1]]);
+            return cmp != 0 ? cmp : Long.compare(right.listingIds()[b[1]], left.listingIds()[a[1]]);
+        });
+        int total = 0;
+        for (int i = 0; i < ranked.size(); i++) {
+            total += ranked.get(i).total();
+            if (ranked.get(i).listingIds().length > 0) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<Long> page = new ArrayList<>(Math.min(limit, 64));
+        for (int position = 0; position < offset + (long) limit && !heads.isEmpty(); position++) {
+            int[] head = heads.poll();
+            ListingSearchIndex.Ranked shard = ranked.get(head[0]);
+            if (position >= offset) {
+                page.add(shard.listingIds()[head[1]]);
+            }
+            if (++head[1] < shard.listingIds().length) {
+                heads.add(head);
+            }
+        }
+        return new ListingSearchIndex.Result(page, total);
+    }
+
+    private <T> List<T> scatter(Function<ListingSearchIndex, T> query) {
+        List<CompletableFuture<T>> pending = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            ListingSearchIndex shard = shards[i];
+            pending.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        results.add(query.apply(shards[0]));
+        for (CompletableFuture<T> future : pending) {
+            results.add(future.join());
+        }
+        return results;
+    }
+}
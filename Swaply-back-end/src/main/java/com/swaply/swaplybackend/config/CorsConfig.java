@@ -16,7 +16,7 @@ public class CorsConfig {
                         .allowedOrigins("http://localhost:5173", "http://127.0.0.1:5173")
                         .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .exposedHeaders("Authorization", "Content-Type")
+                        .exposedHeaders("Authorization", "Content-Type", "X-Next-Cursor", "ETag")
                         .allowCredentials(true)
                         .maxAge(3600);
             }
@@ -9,9 +9,29 @@ public class ListingCacheProperties {
 
     private boolean enabled = true;
     private int preloadLimit = 1000;
+    private int preloadPageSize = 500;
     private int treeOrder = 32;
+    private int shards = 1;
     private long refreshIntervalMs = 60000;
     private int popularityDecayMinutes = 60;
+    private long popularityRerankIntervalMs = 30000;
+    private IndexType indexType = IndexType.SKIP_LIST;
+    private RefreshMode refreshMode = RefreshMode.FULL;
+    private int fullRebuildEvery = 30;
+    private long refreshOverlapMs = 30000;
+    private PayloadStorage payloadStorage = PayloadStorage.HEAP;
+    private int offHeapMaxDeadPercent = 50;
+    private int feedResponseCacheSize = 256;
+    private long detailCacheSize = 10000;
+    private long detailCacheTtlSeconds = 300;
+    private long detailNegativeTtlSeconds = 30;
+    private SearchEngine searchEngine = SearchEngine.IN_MEMORY;
+    private boolean fulltextCreateIndex = false;
+    private int similarNeighbours = 12;
+    private long similarRefreshIntervalMs = 300000;
+    private InvalidationBus invalidationBus = InvalidationBus.LOOPBACK;
+    private long invalidationGapTimeoutMs = 5000;
+    private long invalidationRetentionMs = 3600000;
 
     public boolean isEnabled() {
         return enabled;
@@ -29,6 +49,14 @@ public class ListingCacheProperties {
         this.preloadLimit = preloadLimit;
     }
 
+    public int getPreloadPageSize() {
+        return preloadPageSize;
+    }
+
+    public void setPreloadPageSize(int preloadPageSize) {
+        this.preloadPageSize = preloadPageSize;
+    }
+
     public int getTreeOrder() {
         return treeOrder;
     }
@@ -37,6 +65,14 @@ public class ListingCacheProperties {
         this.treeOrder = treeOrder;
     }
 
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
     public long getRefreshIntervalMs() {
         return refreshIntervalMs;
     }
@@ -52,4 +88,174 @@ public class ListingCacheProperties {
     public void setPopularityDecayMinutes(int popularityDecayMinutes) {
         this.popularityDecayMinutes = popularityDecayMinutes;
     }
+
+    public long getPopularityRerankIntervalMs() {
+        return popularityRerankIntervalMs;
+    }
+
+    public void setPopularityRerankIntervalMs(long popularityRerankIntervalMs) {
+        this.popularityRerankIntervalMs = popularityRerankIntervalMs;
+    }
+
+    public IndexType getIndexType() {
+        return indexType;
+    }
+
+    public void setIndexType(IndexType indexType) {
+        this.indexType = indexType;
+    }
+
+    public RefreshMode getRefreshMode() {
+        return refreshMode;
+    }
+
+    public void setRefreshMode(RefreshMode refreshMode) {
+        this.refreshMode = refreshMode;
+    }
+
+    public int getFullRebuildEvery() {
+        return fullRebuildEvery;
+    }
+
+    public void setFullRebuildEvery(int fullRebuildEvery) {
+        this.fullRebuildEvery = fullRebuildEvery;
+    }
+
+    public long getRefreshOverlapMs() {
+        return refreshOverlapMs;
+    }
+
+    public void setRefreshOverlapMs(long refreshOverlapMs) {
+        this.refreshOverlapMs = refreshOverlapMs;
+    }
+
+    public PayloadStorage getPayloadStorage() {
+        return payloadStorage;
+    }
+
+    public void setPayloadStorage(PayloadStorage payloadStorage) {
+        this.payloadStorage = payloadStorage;
+    }
+
+    public int getOffHeapMaxDeadPercent() {
+        return offHeapMaxDeadPercent;
+    }
+
+    public void setOffHeapMaxDeadPercent(int offHeapMaxDeadPercent) {
+        this.offHeapMaxDeadPercent = offHeapMaxDeadPercent;
+    }
+
+    public int getFeedResponseCacheSize() {
+        return feedResponseCacheSize;
+    }
+
+    public void setFeedResponseCacheSize(int feedResponseCacheSize) {
+        this.feedResponseCacheSize = feedResponseCacheSize;
+    }
+
+    public long getDetailCacheSize() {
+        return detailCacheSize;
+    }
+
+    public void setDetailCacheSize(long detailCacheSize) {
+        this.detailCacheSize = detailCacheSize;
+    }
+
+    public long getDetailCacheTtlSeconds() {
+        return detailCacheTtlSeconds;
+    }
+
+    public void setDetailCacheTtlSeconds(long detailCacheTtlSeconds) {
+        this.detailCacheTtlSeconds = detailCacheTtlSeconds;
+    }
+
+    public long getDetailNegativeTtlSeconds() {
+        return detailNegativeTtlSeconds;
+    }
+
+    public void setDetailNegativeTtlSeconds(long detailNegativeTtlSeconds) {
+        this.detailNegativeTtlSeconds = detailNegativeTtlSeconds;
+    }
+
+    public SearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+
+    public void setSearchEngine(SearchEngine searchEngine) {
+        this.searchEngine = searchEngine;
+    }
+
+    public boolean isFulltextCreateIndex() {
+        return fulltextCreateIndex;
+    }
+
+    public void setFulltextCreateIndex(boolean fulltextCreateIndex) {
+        this.fulltextCreateIndex = fulltextCreateIndex;
+    }
+
+    public int getSimilarNeighbours() {
+        return similarNeighbours;
+    }
+
+    public void setSimilarNeighbours(int similarNeighbours) {
+        this.similarNeighbours = similarNeighbours;
+    }
+
+    public long getSimilarRefreshIntervalMs() {
+        return similarRefreshIntervalMs;
+    }
+
+    public void setSimilarRefreshIntervalMs(long similarRefreshIntervalMs) {
+        this.similarRefreshIntervalMs = similarRefreshIntervalMs;
+    }
+
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    public void setInvalidationBus(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    public long getInvalidationGapTimeoutMs() {
+        return invalidationGapTimeoutMs;
+    }
+
+    public void setInvalidationGapTimeoutMs(long invalidationGapTimeoutMs) {
+        this.invalidationGapTimeoutMs = invalidationGapTimeoutMs;
+    }
+
+    public long getInvalidationRetentionMs() {
+        return invalidationRetentionMs;
+    }
+
+    public void setInvalidationRetentionMs(long invalidationRetentionMs) {
+        this.invalidationRetentionMs = invalidationRetentionMs;
+    }
+
+    public enum IndexType {
+        SKIP_LIST,
+        BPLUS_TREE
+    }
+
+    public enum RefreshMode {
+        FULL,
+        INCREMENTAL
+    }
+
+    public enum PayloadStorage {
+        HEAP,
+        OFF_HEAP
+    }
+
+    public enum InvalidationBus {
+        LOOPBACK,
+        TABLE
+    }
+
+    public enum SearchEngine {
+        IN_MEMORY,
+        LIKE,
+        FULLTEXT
+    }
 }
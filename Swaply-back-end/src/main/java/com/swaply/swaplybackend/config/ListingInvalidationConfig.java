@@ -0,0 +1,21 @@
+package com.swaply.swaplybackend.config;
+
+import com.swaply.swaplybackend.repository.ListingInvalidationRepository;
+import com.swaply.swaplybackend.service.listing.ListingInvalidationBus;
+import com.swaply.swaplybackend.service.listing.LoopbackInvalidationBus;
+import com.swaply.swaplybackend.service.listing.TableInvalidationBus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ListingInvalidationConfig {
+
+    @Bean
+    public ListingInvalidationBus listingInvalidationBus(ListingCacheProperties properties,
+                                                         ListingInvalidationRepository invalidationRepository) {
+        return switch (properties.getInvalidationBus()) {
+            case LOOPBACK -> new LoopbackInvalidationBus();
+            case TABLE -> new TableInvalidationBus(invalidationRepository, properties);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.swaply.swaplybackend.config;
+
+import com.swaply.swaplybackend.repository.ListingRepository;
+import com.swaply.swaplybackend.service.listing.FulltextListingSearchEngine;
+import com.swaply.swaplybackend.service.listing.InMemoryListingSearchEngine;
+import com.swaply.swaplybackend.service.listing.LikeListingSearchEngine;
+import com.swaply.swaplybackend.service.listing.ListingCacheService;
+import com.swaply.swaplybackend.service.listing.ListingSearchEngine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class ListingSearchConfig {
+
+    @Bean
+    public ListingSearchEngine listingSearchEngine(ListingCacheProperties properties, ListingCacheService listingCacheService,
+                                                   ListingRepository listingRepository, JdbcTemplate jdbcTemplate) {
+        return switch (properties.getSearchEngine()) {
+            case IN_MEMORY -> new InMemoryListingSearchEngine(listingCacheService);
+            case LIKE -> new LikeListingSearchEngine(listingRepository);
+            case FULLTEXT -> {
+                FulltextListingSearchEngine engine = new FulltextListingSearchEngine(jdbcTemplate);
+                if (properties.isFulltextCreateIndex()) {
+                    engine.ensureIndex();
+                }
+                yield engine;
+            }
+        };
+    }
+}
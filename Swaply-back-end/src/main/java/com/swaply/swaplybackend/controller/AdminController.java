@@ -7,6 +7,7 @@ import com.swaply.swaplybackend.enums.UserRole;
 import com.swaply.swaplybackend.repository.*;
 import com.swaply.swaplybackend.service.IUserService;
 import com.swaply.swaplybackend.service.MetricsService;
+import com.swaply.swaplybackend.service.listing.ListingCacheService;
 import com.swaply.swaplybackend.dto.AdminApiTestRequest;
 import com.swaply.swaplybackend.dto.AdminApiTestResponse;
 import com.swaply.swaplybackend.dto.AdminDbQueryRequest;
@@ -34,6 +35,7 @@ public class AdminController {
     private final BidRepository bidRepository;
     private final JdbcTemplate jdbcTemplate;
     private final MetricsService metricsService;
+    private final ListingCacheService listingCacheService;
     private final RestTemplate restTemplate = new RestTemplate();
 
     public AdminController(IUserService userService,
@@ -44,7 +46,8 @@ public class AdminController {
                            AuctionRepository auctionRepository,
                            BidRepository bidRepository,
                            JdbcTemplate jdbcTemplate,
-                           MetricsService metricsService) {
+                           MetricsService metricsService,
+                           ListingCacheService listingCacheService) {
         this.userService = userService;
         this.announcementRepository = announcementRepository;
         this.userRepository = userRepository;
@@ -54,6 +57,7 @@ public class AdminController {
         this.bidRepository = bidRepository;
         this.jdbcTemplate = jdbcTemplate;
         this.metricsService = metricsService;
+        this.listingCacheService = listingCacheService;
     }
 
     // User management
@@ -156,7 +160,8 @@ public class AdminController {
         return listingRepository.findById(id).map(l -> {
             try {
                 l.setStatus(com.swaply.swaplybackend.enums.ListingStatus.valueOf(status));
-                listingRepository.save(l);
+                // Re-indexes the listing, or drops it from the cache when it is no longer ACTIVE
+                listingCacheService.upsert(listingRepository.save(l));
                 return ResponseEntity.ok().build();
             } catch (IllegalArgumentException e) {
                 return ResponseEntity.badRequest().body("Invalid status");
@@ -177,6 +182,7 @@ public class AdminController {
     public ResponseEntity<?> deleteListing(@PathVariable Long id) {
         if (!listingRepository.existsById(id)) return ResponseEntity.notFound().build();
         listingRepository.deleteById(id);
+        listingCacheService.evict(id);
         return ResponseEntity.ok().build();
     }
 
@@ -1,22 +1,38 @@
 package com.swaply.swaplybackend.controller;
 
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSuggestIndex;
 import com.swaply.swaplybackend.dto.CreateListingDto;
+import com.swaply.swaplybackend.dto.CursorPage;
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
 import com.swaply.swaplybackend.dto.UpdateListingDto;
 import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.exception.ListingNotFoundException;
 import com.swaply.swaplybackend.service.IListingService;
+import com.swaply.swaplybackend.service.listing.ListingFeed;
+import com.swaply.swaplybackend.service.listing.ListingJsonPage;
+import com.swaply.swaplybackend.service.listing.ListingQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/listings")
 public class ListingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private IListingService listingService;
 
@@ -41,6 +57,28 @@ public class ListingController {
         }
     }
 
+    // Precomputed neighbours of a listing for its detail page; empty until the next background rebuild for new listings
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ListingDto>> getSimilarListings(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "6") int limit) {
+        try {
+            return new ResponseEntity<>(listingService.getSimilarListings(id, limit), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Called when a buyer opens a chat with the seller from a listing; feeds the popularity ranking
+    @PostMapping("/{id}/chat-opened")
+    public ResponseEntity<Void> recordChatOpened(@PathVariable Long id) {
+        try {
+            listingService.recordChatOpened(id);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (ListingNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     @GetMapping("/active")
     public ResponseEntity<List<ListingDto>> getAllActiveListings() {
         try {
@@ -51,65 +89,162 @@ public class ListingController {
         }
     }
 
+    // Newest first; passing min and/or max switches to cheapest first within that price range
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ListingDto>> getListingsByCategory(@PathVariable Category category) {
+    public ResponseEntity<List<ListingDto>> getListingsByCategory(@PathVariable Category category,
+                                                                  @RequestParam(required = false) BigDecimal min,
+                                                                  @RequestParam(required = false) BigDecimal max,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<ListingDto> listings = listingService.getListingsByCategory(category);
+            List<ListingDto> listings = listingService.getListingsByCategory(category, min, max, limit);
             return new ResponseEntity<>(listings, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ListingDto>> getListingsByUserId(@PathVariable Long userId) {
+    @GetMapping("/condition/{condition}")
+    public ResponseEntity<List<ListingDto>> getListingsByCondition(@PathVariable ListingCondition condition,
+                                                                   @RequestParam(required = false) BigDecimal min,
+                                                                   @RequestParam(required = false) BigDecimal max,
+                                                                   @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<ListingDto> listings = listingService.getListingsByUserId(userId);
+            List<ListingDto> listings = listingService.getListingsByCondition(condition, min, max, limit);
             return new ResponseEntity<>(listings, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Any combination of filters; every parameter is optional and results come back newest first
+    @GetMapping("/query")
+    public ResponseEntity<List<ListingDto>> queryListings(@RequestParam(required = false) Category category,
+                                                          @RequestParam(required = false) ListingCondition condition,
+                                                          @RequestParam(required = false) BigDecimal min,
+                                                          @RequestParam(required = false) BigDecimal max,
+                                                          @RequestParam(required = false) Long sellerId,
+                                                          @RequestParam(required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        try {
+            ListingQuery query = new ListingQuery(category, condition, min, max, sellerId, createdAfter, limit);
+            return new ResponseEntity<>(listingService.queryListings(query), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Newest first, one page at a time; the resume token travels in X-Next-Cursor
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<ListingDto>> getListingsByUserId(@PathVariable Long userId,
+                                                                @RequestParam(required = false) ListingStatus status,
+                                                                @RequestParam(defaultValue = "50") int limit,
+                                                                @RequestParam(required = false) String cursor) {
+        try {
+            CursorPage<ListingDto> page = listingService.getListingsByUserId(userId, status, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Best matches first; words may be partially typed
     @GetMapping("/search")
-    public ResponseEntity<List<ListingDto>> searchListings(@RequestParam String keyword) {
+    public ResponseEntity<PagedResponse<ListingDto>> searchListings(@RequestParam String keyword,
+                                                                    @RequestParam(defaultValue = "1") int page,
+                                                                    @RequestParam(defaultValue = "20") int size) {
         try {
-            List<ListingDto> listings = listingService.searchListings(keyword);
+            PagedResponse<ListingDto> listings = listingService.searchListings(keyword, page, size);
             return new ResponseEntity<>(listings, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Category, condition and price-bucket counts for the search page; all active listings when keyword is absent
+    @GetMapping("/facets")
+    public ResponseEntity<ListingFacetIndex.Facets> getListingFacets(@RequestParam(required = false) String keyword) {
+        try {
+            return new ResponseEntity<>(listingService.getListingFacets(keyword), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Completions for a search box, called on every keystroke; never reaches the database
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ListingSuggestIndex.Suggestion>> suggestListings(@RequestParam String q,
+                                                                                @RequestParam(defaultValue = "8") int limit) {
+        try {
+            return new ResponseEntity<>(listingService.suggestListings(q, limit), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // The body is a JSON array of pre-encoded listings; the resume token travels in X-Next-Cursor.
+    // Pages carry a strong ETag, so a client revalidating an unchanged feed gets a bodiless 304 without a render
     @GetMapping("/latest")
-    public ResponseEntity<List<ListingDto>> getLatestListings(@RequestParam(defaultValue = "20") int limit) {
+    public ResponseEntity<byte[]> getLatestListings(@RequestParam(defaultValue = "20") int limit,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return new ResponseEntity<>(listingService.getLatestListings(limit), HttpStatus.OK);
+            return jsonPage(listingService.getLatestListings(cursor, limit, ifNoneMatch));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/popular")
-    public ResponseEntity<List<ListingDto>> getPopularListings(@RequestParam(defaultValue = "20") int limit) {
+    public ResponseEntity<byte[]> getPopularListings(@RequestParam(defaultValue = "20") int limit,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return new ResponseEntity<>(listingService.getPopularListings(limit), HttpStatus.OK);
+            return jsonPage(listingService.getPopularListings(cursor, limit, ifNoneMatch));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<ListingDto>> getByPriceRange(@RequestParam BigDecimal min,
-                                                            @RequestParam BigDecimal max,
-                                                            @RequestParam(defaultValue = "50") int limit) {
+    public ResponseEntity<byte[]> getByPriceRange(@RequestParam BigDecimal min,
+                                                  @RequestParam BigDecimal max,
+                                                  @RequestParam(defaultValue = "50") int limit,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return new ResponseEntity<>(listingService.getListingsByPriceRange(min, max, limit), HttpStatus.OK);
+            return jsonPage(listingService.getListingsByPriceRange(min, max, cursor, limit, ifNoneMatch));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    private ResponseEntity<byte[]> jsonPage(ListingFeed feed) {
+        if (feed.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(feed.etag()).build();
+        }
+        ListingJsonPage page = feed.page();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(feed.etag());
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.json());
+    }
+
     @PutMapping("/{listingId}")
     public ResponseEntity<ListingDto> updateListing(@PathVariable Long listingId,
                                                    @RequestBody UpdateListingDto updateListingDto) {
@@ -41,6 +41,12 @@ public class ListingDto {
         this.updatedDate = updatedDate;
     }
 
+    // Used by JPQL constructor projections that also carry the seller's avatar
+    public ListingDto(Long listingId, String title, String description, BigDecimal price, Category category, ListingCondition condition, String imageUrl, ListingStatus status, Long userId, String userName, String sellerProfileImageUrl, LocalDateTime createdDate, LocalDateTime updatedDate) {
+        this(listingId, title, description, price, category, condition, imageUrl, status, userId, userName, createdDate, updatedDate);
+        this.sellerProfileImageUrl = sellerProfileImageUrl;
+    }
+
     // Getters and Setters
     public Long getListingId() {
         return listingId;
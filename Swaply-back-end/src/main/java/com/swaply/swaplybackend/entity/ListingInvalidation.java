@@ -0,0 +1,67 @@
+package com.swaply.swaplybackend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// One row per listing change, read back in id order by every node polling the invalidation table
+@Entity
+@Table(name = "tb_listing_invalidation", indexes = @Index(name = "idx_listing_invalidation_created", columnList = "created_at"))
+public class ListingInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "invalidation_id")
+    private Long invalidationId;
+
+    @Column(nullable = false, name = "listing_id")
+    private Long listingId;
+
+    @Column(nullable = false, length = 36, name = "origin")
+    private String origin;
+
+    @CreationTimestamp
+    @Column(updatable = false, name = "created_at")
+    private LocalDateTime createdAt;
+
+    public ListingInvalidation() {
+    }
+
+    public ListingInvalidation(Long listingId, String origin) {
+        this.listingId = listingId;
+        this.origin = origin;
+    }
+
+    public Long getInvalidationId() {
+        return invalidationId;
+    }
+
+    public void setInvalidationId(Long invalidationId) {
+        this.invalidationId = invalidationId;
+    }
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.swaply.swaplybackend.repository;
+
+import com.swaply.swaplybackend.entity.ListingInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ListingInvalidationRepository extends JpaRepository<ListingInvalidation, Long> {
+    List<ListingInvalidation> findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(Long invalidationId);
+
+    Optional<ListingInvalidation> findTopByOrderByInvalidationIdDesc();
+
+    @Transactional
+    long deleteByCreatedAtBefore(LocalDateTime cutoff);
+}
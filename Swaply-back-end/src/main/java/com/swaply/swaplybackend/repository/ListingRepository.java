@@ -1,10 +1,13 @@
 package com.swaply.swaplybackend.repository;
 
+import com.swaply.swaplybackend.dto.ListingDto;
 import com.swaply.swaplybackend.entity.Listing;
 import com.swaply.swaplybackend.entity.User;
 import com.swaply.swaplybackend.enums.Category;
 import com.swaply.swaplybackend.enums.ListingCondition;
 import com.swaply.swaplybackend.enums.ListingStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,11 +38,97 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     //filter by status + date crated
     List<Listing> findByStatusOrderByCreatedDateDesc(ListingStatus status);
 
+    //keyset-paginated DTO projection for cache warm-up (newest first, listingId breaks ties)
+    @Query("SELECT new com.swaply.swaplybackend.dto.ListingDto(l.listingId, l.title, l.description, l.price, " +
+            "l.category, l.condition, l.imageUrl, l.status, u.userId, u.userName, u.profileImageUrl, " +
+            "l.createdDate, l.updatedDate) FROM Listing l JOIN l.user u WHERE l.status = :status " +
+            "ORDER BY l.createdDate DESC, l.listingId DESC")
+    List<ListingDto> findDtoPageByStatus(@Param("status") ListingStatus status, Pageable pageable);
+
+    @Query("SELECT new com.swaply.swaplybackend.dto.ListingDto(l.listingId, l.title, l.description, l.price, " +
+            "l.category, l.condition, l.imageUrl, l.status, u.userId, u.userName, u.profileImageUrl, " +
+            "l.createdDate, l.updatedDate) FROM Listing l JOIN l.user u WHERE l.status = :status AND " +
+            "(l.createdDate < :createdBefore OR (l.createdDate = :createdBefore AND l.listingId < :idBefore)) " +
+            "ORDER BY l.createdDate DESC, l.listingId DESC")
+    List<ListingDto> findDtoPageByStatusBefore(@Param("status") ListingStatus status,
+                                              @Param("createdBefore") LocalDateTime createdBefore,
+                                              @Param("idBefore") Long idBefore,
+                                              Pageable pageable);
+
+    //ad-hoc filter used when the listing cache cannot answer a query; null parameters are ignored,
+    //results are newest first, or cheapest first when cheapestFirst is set
+    @Query("SELECT new com.swaply.swaplybackend.dto.ListingDto(l.listingId, l.title, l.description, l.price, " +
+            "l.category, l.condition, l.imageUrl, l.status, u.userId, u.userName, u.profileImageUrl, " +
+            "l.createdDate, l.updatedDate) FROM Listing l JOIN l.user u WHERE l.status = :status " +
+            "AND (:category IS NULL OR l.category = :category) " +
+            "AND (:condition IS NULL OR l.condition = :condition) " +
+            "AND (:minPrice IS NULL OR l.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR l.price <= :maxPrice) " +
+            "AND (:sellerId IS NULL OR u.userId = :sellerId) " +
+            "AND (:createdAfter IS NULL OR l.createdDate > :createdAfter) " +
+            "ORDER BY CASE WHEN :cheapestFirst = true THEN l.price END ASC, l.createdDate DESC, l.listingId DESC")
+    List<ListingDto> findDtoByFilters(@Param("status") ListingStatus status,
+                                      @Param("category") Category category,
+                                      @Param("condition") ListingCondition condition,
+                                      @Param("minPrice") BigDecimal minPrice,
+                                      @Param("maxPrice") BigDecimal maxPrice,
+                                      @Param("sellerId") Long sellerId,
+                                      @Param("createdAfter") LocalDateTime createdAfter,
+                                      @Param("cheapestFirst") boolean cheapestFirst,
+                                      Pageable pageable);
+
+    //one seller's listings newest first, keyset-paged; a null status means every status, a null createdBefore the first page
+    @Query("SELECT new com.swaply.swaplybackend.dto.ListingDto(l.listingId, l.title, l.description, l.price, " +
+            "l.category, l.condition, l.imageUrl, l.status, u.userId, u.userName, u.profileImageUrl, " +
+            "l.createdDate, l.updatedDate) FROM Listing l JOIN l.user u WHERE u.userId = :sellerId " +
+            "AND (:status IS NULL OR l.status = :status) " +
+            "AND (:createdBefore IS NULL OR l.createdDate < :createdBefore " +
+            "OR (l.createdDate = :createdBefore AND l.listingId < :idBefore)) " +
+            "ORDER BY l.createdDate DESC, l.listingId DESC")
+    List<ListingDto> findDtoPageBySeller(@Param("sellerId") Long sellerId,
+                                         @Param("status") ListingStatus status,
+                                         @Param("createdBefore") LocalDateTime createdBefore,
+                                         @Param("idBefore") Long idBefore,
+                                         Pageable pageable);
+
+    //change feed for incremental cache refresh (any status), from a point overlapping the previous run
+    @Query("SELECT l FROM Listing l WHERE l.updatedDate >= :since ORDER BY l.updatedDate ASC, l.listingId ASC")
+    List<Listing> findChangedSince(@Param("since") LocalDateTime since);
+
     //custom query keyword search in title or description
     @Query("SELECT l FROM Listing l WHERE " + "(LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " + "l.status = :status")
     List<Listing> searchByKeywordAndStatus(@Param("keyword") String keyword, @Param("status") ListingStatus status);
 
+    //paged DTO variant, used when the in-memory search index cannot answer
+    @Query(value = "SELECT new com.swaply.swaplybackend.dto.ListingDto(l.listingId, l.title, l.description, l.price, " +
+            "l.category, l.condition, l.imageUrl, l.status, u.userId, u.userName, u.profileImageUrl, " +
+            "l.createdDate, l.updatedDate) FROM Listing l JOIN l.user u WHERE l.status = :status AND " +
+            "(LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "ORDER BY l.createdDate DESC, l.listingId DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = :status AND " +
+                    "(LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Page<ListingDto> searchDtoByKeyword(@Param("keyword") String keyword, @Param("status") ListingStatus status,
+                                        Pageable pageable);
+
+    //facet counts in one round-trip: a row per (category, condition) with a count per price bucket;
+    //the bucket sums are ListingFacetIndex.priceBucketSums("l.price") spelled out, which ListingFacetIndexTest pins
+    @Query("SELECT l.category, l.condition, " +
+            "SUM(CASE WHEN l.price < 25 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 25 AND l.price < 50 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 50 AND l.price < 100 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 100 AND l.price < 250 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 250 AND l.price < 500 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 500 AND l.price < 1000 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN l.price >= 1000 THEN 1 ELSE 0 END) " +
+            "FROM Listing l WHERE l.status = :status AND (:keyword IS NULL OR " +
+            "LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "GROUP BY l.category, l.condition")
+    List<Object[]> countFacets(@Param("status") ListingStatus status, @Param("keyword") String keyword);
+
 
     Long countByUserUserId(Long userId);
 
@@ -14,6 +14,7 @@ import com.swaply.swaplybackend.repository.AuctionRepository;
 import com.swaply.swaplybackend.repository.BidRepository;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.repository.UserRepository;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,15 +32,18 @@ public class AuctionService implements IAuctionService {
     private final ListingRepository listingRepository;
     private final UserRepository userRepository;
     private final AuctionRealtimePublisher auctionRealtimePublisher;
+    private final ListingPopularityTracker popularityTracker;
 
     public AuctionService(AuctionRepository auctionRepository, BidRepository bidRepository,
                           ListingRepository listingRepository, UserRepository userRepository,
-                          AuctionRealtimePublisher auctionRealtimePublisher) {
+                          AuctionRealtimePublisher auctionRealtimePublisher,
+                          ListingPopularityTracker popularityTracker) {
         this.auctionRepository = auctionRepository;
         this.bidRepository = bidRepository;
         this.listingRepository = listingRepository;
         this.userRepository = userRepository;
         this.auctionRealtimePublisher = auctionRealtimePublisher;
+        this.popularityTracker = popularityTracker;
     }
 
     @Override
@@ -126,6 +130,7 @@ public class AuctionService implements IAuctionService {
         bid.setBidder(bidder);
         bid.setAmount(amount);
         bidRepository.save(bid);
+        popularityTracker.record(auction.getListing().getListingId(), ListingPopularityTracker.Signal.BID);
 
         auction.setCurrentPrice(amount);
         auction.setHighestBidder(bidder);
@@ -7,6 +7,7 @@ import com.swaply.swaplybackend.entity.User;
 import com.swaply.swaplybackend.enums.ListingStatus;
 import com.swaply.swaplybackend.repository.CartItemRepository;
 import com.swaply.swaplybackend.repository.ListingRepository;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,10 +20,13 @@ public class CartService {
 
     private final CartItemRepository cartItemRepository;
     private final ListingRepository listingRepository;
+    private final ListingPopularityTracker popularityTracker;
 
-    public CartService(CartItemRepository cartItemRepository, ListingRepository listingRepository) {
+    public CartService(CartItemRepository cartItemRepository, ListingRepository listingRepository,
+                       ListingPopularityTracker popularityTracker) {
         this.cartItemRepository = cartItemRepository;
         this.listingRepository = listingRepository;
+        this.popularityTracker = popularityTracker;
     }
 
     @Transactional
@@ -46,6 +50,7 @@ public class CartService {
                     return ci;
                 });
         CartItem saved = cartItemRepository.save(cartItem);
+        popularityTracker.record(listingId, ListingPopularityTracker.Signal.CART_ADD);
         return toResponse(saved);
     }
 
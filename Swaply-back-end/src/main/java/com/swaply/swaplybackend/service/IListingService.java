@@ -1,9 +1,17 @@
 package com.swaply.swaplybackend.service;
 
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSuggestIndex;
 import com.swaply.swaplybackend.dto.CreateListingDto;
+import com.swaply.swaplybackend.dto.CursorPage;
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
 import com.swaply.swaplybackend.dto.UpdateListingDto;
 import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.service.listing.ListingFeed;
+import com.swaply.swaplybackend.service.listing.ListingQuery;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -14,13 +22,27 @@ public interface IListingService {
 
     ListingDto getListingById(Long id);
 
+    void recordChatOpened(Long listingId);
+
     List<ListingDto> getAllActiveListings();
 
     List<ListingDto> getListingsByCategory(Category category);
 
-    List<ListingDto> getListingsByUserId(Long userId);
+    List<ListingDto> getListingsByCategory(Category category, BigDecimal min, BigDecimal max, int limit);
+
+    List<ListingDto> getListingsByCondition(ListingCondition condition, BigDecimal min, BigDecimal max, int limit);
+
+    List<ListingDto> queryListings(ListingQuery query);
+
+    CursorPage<ListingDto> getListingsByUserId(Long userId, ListingStatus status, String cursor, int limit);
+
+    PagedResponse<ListingDto> searchListings(String keyword, int page, int size);
 
-    List<ListingDto> searchListings(String keyword);
+    List<ListingSuggestIndex.Suggestion> suggestListings(String text, int limit);
+
+    ListingFacetIndex.Facets getListingFacets(String keyword);
+
+    List<ListingDto> getSimilarListings(Long listingId, int limit);
 
     ListingDto updateListing(Long listingId, UpdateListingDto updateListingDto);
 
@@ -34,4 +56,10 @@ public interface IListingService {
 
     List<ListingDto> getListingsByPriceRange(BigDecimal min, BigDecimal max, int limit);
 
+    ListingFeed getLatestListings(String cursor, int limit, String ifNoneMatch);
+
+    ListingFeed getPopularListings(String cursor, int limit, String ifNoneMatch);
+
+    ListingFeed getListingsByPriceRange(BigDecimal min, BigDecimal max, String cursor, int limit, String ifNoneMatch);
+
 }
@@ -1,23 +1,34 @@
 package com.swaply.swaplybackend.service;
 
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSuggestIndex;
 import com.swaply.swaplybackend.dto.CreateListingDto;
+import com.swaply.swaplybackend.dto.CursorPage;
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
 import com.swaply.swaplybackend.dto.UpdateListingDto;
 import com.swaply.swaplybackend.entity.Listing;
 import com.swaply.swaplybackend.entity.User;
 import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
 import com.swaply.swaplybackend.enums.ListingStatus;
 import com.swaply.swaplybackend.exception.InvalidListingException;
 import com.swaply.swaplybackend.exception.ListingNotFoundException;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.repository.UserRepository;
 import com.swaply.swaplybackend.service.listing.ListingCacheService;
+import com.swaply.swaplybackend.service.listing.ListingDetailCache;
+import com.swaply.swaplybackend.service.listing.ListingFeed;
+import com.swaply.swaplybackend.service.listing.ListingFeedCache;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
+import com.swaply.swaplybackend.service.listing.ListingQuery;
+import com.swaply.swaplybackend.service.listing.ListingSearchEngine;
+import com.swaply.swaplybackend.service.listing.ListingSimilarityService;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ListingService implements IListingService {
@@ -25,11 +36,23 @@ public class ListingService implements IListingService {
     private final ListingRepository listingRepository;
     private final UserRepository userRepository;
     private final ListingCacheService listingCacheService;
+    private final ListingPopularityTracker popularityTracker;
+    private final ListingFeedCache feedCache;
+    private final ListingDetailCache detailCache;
+    private final ListingSearchEngine searchEngine;
+    private final ListingSimilarityService similarityService;
 
-    public ListingService(ListingRepository listingRepository, UserRepository userRepository, ListingCacheService listingCacheService) {
+    public ListingService(ListingRepository listingRepository, UserRepository userRepository, ListingCacheService listingCacheService,
+                          ListingPopularityTracker popularityTracker, ListingFeedCache feedCache, ListingDetailCache detailCache,
+                          ListingSearchEngine searchEngine, ListingSimilarityService similarityService) {
         this.listingRepository = listingRepository;
         this.userRepository = userRepository;
         this.listingCacheService = listingCacheService;
+        this.popularityTracker = popularityTracker;
+        this.feedCache = feedCache;
+        this.detailCache = detailCache;
+        this.searchEngine = searchEngine;
+        this.similarityService = similarityService;
     }
 
     @Override
@@ -59,9 +82,19 @@ public class ListingService implements IListingService {
 
     @Override
     public ListingDto getListingById(Long id) {
-        Listing listing = listingRepository.findById(id)
+        ListingDto listing = detailCache.find(id)
                 .orElseThrow(() -> new ListingNotFoundException("Listing with ID " + id + " not found."));
-        return convertToDto(listing);
+        popularityTracker.record(id, ListingPopularityTracker.Signal.VIEW);
+        return listing;
+    }
+
+    @Override
+    public void recordChatOpened(Long listingId) {
+        // Only listings the cache ranks can gain popularity; anything else would just grow the tracker
+        if (listingCacheService.findById(listingId).isEmpty()) {
+            throw new ListingNotFoundException("Listing not found with ID: " + listingId);
+        }
+        popularityTracker.record(listingId, ListingPopularityTracker.Signal.CHAT_OPEN);
     }
 
 
@@ -72,26 +105,57 @@ public class ListingService implements IListingService {
 
     @Override
     public List<ListingDto> getListingsByCategory(Category category) {
-        List<Listing> listings = listingRepository.findByStatusAndCategory(ListingStatus.ACTIVE, category);
-        return listings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return getListingsByCategory(category, null, null, Integer.MAX_VALUE);
+    }
+
+    // Served from the category sub-index; the cache falls back to SQL when it is off or only partly preloaded
+    @Override
+    public List<ListingDto> getListingsByCategory(Category category, BigDecimal min, BigDecimal max, int limit) {
+        return listingCacheService.byCategory(category, min, max, limit);
+    }
+
+    @Override
+    public List<ListingDto> getListingsByCondition(ListingCondition condition, BigDecimal min, BigDecimal max, int limit) {
+        return listingCacheService.byCondition(condition, min, max, limit);
+    }
+
+    @Override
+    public List<ListingDto> queryListings(ListingQuery query) {
+        return listingCacheService.query(query);
+    }
+
+    @Override
+    public CursorPage<ListingDto> getListingsByUserId(Long userId, ListingStatus status, String cursor, int limit) {
+        return listingCacheService.sellerPage(userId, status, cursor, limit);
+    }
+
+    @Override
+    public PagedResponse<ListingDto> searchListings(String keyword, int page, int size) {
+        int pageNumber = Math.max(page, 1);
+        int pageSize = Math.min(Math.max(size, 1), 50);
+        if (keyword == null || keyword.isBlank()) {
+            return new PagedResponse<>(List.of(), pageNumber, pageSize, 0);
+        }
+        return searchEngine.search(keyword, pageNumber, pageSize);
     }
 
     @Override
-    public List<ListingDto> getListingsByUserId(Long userId) {
-        List<Listing> listings = listingRepository.findByUserUserId(userId);
-        return listings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public List<ListingSuggestIndex.Suggestion> suggestListings(String text, int limit) {
+        return listingCacheService.suggest(text, Math.min(Math.max(limit, 1), 20));
     }
 
     @Override
-    public List<ListingDto> searchListings(String keyword) {
-        List<Listing> listings = listingRepository.searchByKeywordAndStatus(keyword, ListingStatus.ACTIVE);
-        return listings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public ListingFacetIndex.Facets getListingFacets(String keyword) {
+        // A keyword counts what the configured engine matches, so facets agree with the search results
+        if (keyword == null || keyword.isBlank()) {
+            return listingCacheService.facets(null);
+        }
+        return searchEngine.facets(keyword);
+    }
+
+    @Override
+    public List<ListingDto> getSimilarListings(Long listingId, int limit) {
+        return similarityService.similar(listingId, Math.min(Math.max(limit, 1), 24));
     }
 
     @Override
@@ -181,6 +245,18 @@ public class ListingService implements IListingService {
         return listingCacheService.priceRange(min, max, limit);
     }
 
+    public ListingFeed getLatestListings(String cursor, int limit, String ifNoneMatch) {
+        return feedCache.latest(cursor, limit, ifNoneMatch);
+    }
+
+    public ListingFeed getPopularListings(String cursor, int limit, String ifNoneMatch) {
+        return feedCache.popular(cursor, limit, ifNoneMatch);
+    }
+
+    public ListingFeed getListingsByPriceRange(BigDecimal min, BigDecimal max, String cursor, int limit, String ifNoneMatch) {
+        return feedCache.priceRange(min, max, cursor, limit, ifNoneMatch);
+    }
+
     // entity to DTO conversion
     private ListingDto convertToDto(Listing listing) {
         ListingDto dto = new ListingDto();
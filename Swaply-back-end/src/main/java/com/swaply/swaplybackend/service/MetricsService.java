@@ -1,5 +1,6 @@
 package com.swaply.swaplybackend.service;
 
+import com.swaply.swaplybackend.service.listing.ListingDetailCache;
 import org.springframework.stereotype.Service;
 import com.sun.management.OperatingSystemMXBean;
 import java.lang.management.ManagementFactory;
@@ -19,6 +20,12 @@ public class MetricsService {
     private final Map<Long, Long> recentRequests = new ConcurrentHashMap<>();
     private static final int MAX_TRACKED_REQUESTS = 100;
 
+    private final ListingDetailCache listingDetailCache;
+
+    public MetricsService(ListingDetailCache listingDetailCache) {
+        this.listingDetailCache = listingDetailCache;
+    }
+
     /**
      * Register an active user by username
      */
@@ -127,17 +134,16 @@ public class MetricsService {
         // Additional metrics
         metrics.put("dbQueries", recentRequests.size()); // Approximate
         metrics.put("cacheHitRate", calculateCacheHitRate());
+        metrics.put("listingDetailCache", listingDetailCache.stats());
 
         return metrics;
     }
 
     /**
-     * Calculate cache hit rate (placeholder - implement based on your caching strategy)
+     * Calculate cache hit rate of listing detail lookups, as a percentage
      */
     private int calculateCacheHitRate() {
-        // This is a placeholder. In a real app, you'd track actual cache hits/misses
-        // For now, return a reasonable value
-        return 75 + (int)(Math.random() * 20); // 75-95%
+        return (int) Math.round(listingDetailCache.stats().hitRate() * 100);
     }
 
     /**
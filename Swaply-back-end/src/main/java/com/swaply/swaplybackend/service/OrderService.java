@@ -122,6 +122,7 @@ public class OrderService implements IOrderService {
             if (listing != null && listing.getStatus() != ListingStatus.SOLD) {
                 listing.setStatus(ListingStatus.SOLD);
                 listingRepository.save(listing);
+                listingCacheService.evict(listing.getListingId());
             }
         }
 
@@ -0,0 +1,116 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Server-side search for deployments that cannot hold the catalogue in memory: a MySQL FULLTEXT
+ * index on (title, description) queried with {@code MATCH ... AGAINST} in natural language mode
+ * and ordered by its relevance score. Hibernate cannot declare FULLTEXT indexes, so the index is
+ * part of the managed schema ({@link #CREATE_INDEX_SQL}); {@link #ensureIndex()} only runs when
+ * {@code listing.cache.fulltext-create-index} opts in. MySQL ignores words shorter than
+ * {@code innodb_ft_min_token_size} (3 by default) and its stopwords.
+ */
+public class FulltextListingSearchEngine implements ListingSearchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(FulltextListingSearchEngine.class);
+
+    static final String INDEX_NAME = "ft_listing_title_description";
+    static final String CREATE_INDEX_SQL = "ALTER TABLE tb_listing ADD FULLTEXT INDEX " + INDEX_NAME + " (title, description)";
+    // MySQL ER_DUP_KEYNAME: another node created the index first
+    private static final int DUPLICATE_KEY_NAME = 1061;
+    private static final String MATCH = "MATCH(l.title, l.description) AGAINST (? IN NATURAL LANGUAGE MODE)";
+    private static final String SEARCH_SQL = "SELECT l.listing_id, l.title, l.description, l.price, l.category, "
+            + "l.`condition`, l.image_url, l.status, u.user_id, u.user_name, u.profile_image_url, l.created_date, "
+            + "l.updated_date, " + MATCH + " AS relevance FROM tb_listing l JOIN tb_user u ON u.user_id = l.user_id "
+            + "WHERE l.status = ? AND " + MATCH + " ORDER BY relevance DESC, l.listing_id DESC LIMIT ? OFFSET ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM tb_listing l WHERE l.status = ? AND " + MATCH;
+    private static final String FACETS_SQL = "SELECT l.category, l.`condition`, " + ListingFacetIndex.priceBucketSums("l.price")
+            + " FROM tb_listing l WHERE l.status = ? AND " + MATCH + " GROUP BY l.category, l.`condition`";
+
+    private static final RowMapper<ListingDto> LISTING = (rs, rowNum) -> new ListingDto(
+            rs.getLong("listing_id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getBigDecimal("price"),
+            rs.getString("category") != null ? Category.valueOf(rs.getString("category")) : null,
+            rs.getString("condition") != null ? ListingCondition.valueOf(rs.getString("condition")) : null,
+            rs.getString("image_url"),
+            ListingStatus.valueOf(rs.getString("status")),
+            rs.getLong("user_id"),
+            rs.getString("user_name"),
+            rs.getString("profile_image_url"),
+            toLocalDateTime(rs.getTimestamp("created_date")),
+            toLocalDateTime(rs.getTimestamp("updated_date")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FulltextListingSearchEngine(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the FULLTEXT index when missing. Nodes starting together may both see it missing,
+     * so losing that race ("duplicate key name") counts as success.
+     */
+    public void ensureIndex() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'tb_listing' AND index_name = ?", Integer.class, INDEX_NAME);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        log.info("Creating FULLTEXT index {} on tb_listing; this rebuilds the table once", INDEX_NAME);
+        try {
+            jdbcTemplate.execute(CREATE_INDEX_SQL);
+        } catch (DataAccessException e) {
+            if (!(e.getMostSpecificCause() instanceof SQLException sql) || sql.getErrorCode() != DUPLICATE_KEY_NAME) {
+                throw e;
+            }
+            log.info("FULLTEXT index {} was created by another node", INDEX_NAME);
+        }
+    }
+
+    @Override
+    public PagedResponse<ListingDto> search(String keyword, int page, int size) {
+        String query = keyword.trim();
+        String status = ListingStatus.ACTIVE.name();
+        long offset = (long) Math.max(page - 1, 0) * size;
+        List<ListingDto> items = jdbcTemplate.query(SEARCH_SQL, LISTING, query, status, query, size, offset);
+        // A partial page ends the result set, but an empty one may lie past the end, so only the former skips COUNT
+        Long total = items.size() < size && !items.isEmpty()
+                ? offset + items.size()
+                : jdbcTemplate.queryForObject(COUNT_SQL, Long.class, status, query);
+        return new PagedResponse<>(items, page, size, total != null ? total : 0);
+    }
+
+    @Override
+    public ListingFacetIndex.Facets facets(String keyword) {
+        List<Object[]> rows = jdbcTemplate.query(FACETS_SQL, (rs, rowNum) -> {
+            Object[] row = new Object[2 + ListingFacetIndex.bucketCount()];
+            row[0] = rs.getString("category") != null ? Category.valueOf(rs.getString("category")) : null;
+            row[1] = rs.getString("condition") != null ? ListingCondition.valueOf(rs.getString("condition")) : null;
+            for (int bucket = 0; bucket < ListingFacetIndex.bucketCount(); bucket++) {
+                row[2 + bucket] = rs.getLong(3 + bucket);
+            }
+            return row;
+        }, ListingStatus.ACTIVE.name(), keyword.trim());
+        return ListingFacetIndex.fromRows(rows);
+    }
+
+    private static java.time.LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
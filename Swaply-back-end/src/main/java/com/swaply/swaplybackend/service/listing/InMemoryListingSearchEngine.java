@@ -0,0 +1,28 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+
+/**
+ * Searches the listing cache's inverted index; {@link ListingCacheService} itself falls back to
+ * LIKE queries while the cache does not hold every active listing.
+ */
+public class InMemoryListingSearchEngine implements ListingSearchEngine {
+
+    private final ListingCacheService listingCacheService;
+
+    public InMemoryListingSearchEngine(ListingCacheService listingCacheService) {
+        this.listingCacheService = listingCacheService;
+    }
+
+    @Override
+    public PagedResponse<ListingDto> search(String keyword, int page, int size) {
+        return listingCacheService.search(keyword, page, size);
+    }
+
+    @Override
+    public ListingFacetIndex.Facets facets(String keyword) {
+        return listingCacheService.facets(keyword);
+    }
+}
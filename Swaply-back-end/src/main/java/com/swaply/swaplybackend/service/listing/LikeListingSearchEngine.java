@@ -0,0 +1,34 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Substring match on title and description, newest first. Cannot use an index, so every query
+ * scans the listing table; kept as the baseline and for databases without FULLTEXT support.
+ */
+public class LikeListingSearchEngine implements ListingSearchEngine {
+
+    private final ListingRepository listingRepository;
+
+    public LikeListingSearchEngine(ListingRepository listingRepository) {
+        this.listingRepository = listingRepository;
+    }
+
+    @Override
+    public PagedResponse<ListingDto> search(String keyword, int page, int size) {
+        Page<ListingDto> results = listingRepository.searchDtoByKeyword(keyword.trim(), ListingStatus.ACTIVE,
+                PageRequest.of(Math.max(page - 1, 0), size));
+        return new PagedResponse<>(results.getContent(), page, size, results.getTotalElements());
+    }
+
+    @Override
+    public ListingFacetIndex.Facets facets(String keyword) {
+        return ListingFacetIndex.fromRows(listingRepository.countFacets(ListingStatus.ACTIVE, keyword.trim()));
+    }
+}
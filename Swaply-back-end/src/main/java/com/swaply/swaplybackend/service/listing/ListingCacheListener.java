@@ -0,0 +1,21 @@
+package com.swaply.swaplybackend.service.listing;
+
+/**
+ * Notified by {@link ListingCacheService} after a change has been applied to the cache, so
+ * caches layered on top of it can drop what they derived from the old state.
+ */
+public interface ListingCacheListener {
+
+    /** The listing was upserted or evicted. */
+    void listingChanged(Long listingId);
+
+    /** A full rebuild replaced the cache contents wholesale. */
+    void cacheRebuilt();
+
+    /**
+     * The change was written through this node's {@code upsert}/{@code evict}, as opposed to a
+     * refresh or a change another node reported. Called after {@link #listingChanged}.
+     */
+    default void listingWritten(Long listingId) {
+    }
+}
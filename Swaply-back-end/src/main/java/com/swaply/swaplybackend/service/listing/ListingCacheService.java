@@ -1,17 +1,34 @@
 package com.swaply.swaplybackend.service.listing;
 
 import com.swaply.swaplybackend.cache.listing.BPlusTreeIndex;
+import com.swaply.swaplybackend.cache.listing.BPlusTreeNodeIndex;
 import com.swaply.swaplybackend.cache.listing.ListingCacheEntry;
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
 import com.swaply.swaplybackend.cache.listing.ListingIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSearchIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSuggestIndex;
+import com.swaply.swaplybackend.cache.listing.OffHeapListingStore;
+import com.swaply.swaplybackend.cache.listing.ShardedListingIndex;
+import com.swaply.swaplybackend.cache.listing.ShardedListingSearchIndex;
 import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.CursorPage;
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
 import com.swaply.swaplybackend.entity.Listing;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
 import com.swaply.swaplybackend.enums.ListingStatus;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.service.ListingMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,25 +36,102 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+// The invalidation bus seeds its starting position before the startup rebuild begins, so nothing
+// published while the rebuild runs is skipped
 @Service
+@DependsOn("listingInvalidationBus")
 public class ListingCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(ListingCacheService.class);
 
     private final ListingRepository listingRepository;
     private final ListingCacheProperties properties;
-    private final ListingIndex index = new BPlusTreeIndex();
-    private final Map<Long, ListingCacheEntry> entriesById = new ConcurrentHashMap<>();
+    private final ListingPopularityTracker popularityTracker;
+    private final ObjectMapper objectMapper;
+    // Runs the other shards' half of a scatter-gather read; null when the cache is not sharded
+    private final ForkJoinPool shardExecutor;
 
-    public ListingCacheService(ListingRepository listingRepository, ListingCacheProperties properties) {
+    // Readers only ever dereference this once per call; a rebuild publishes a whole new generation
+    private volatile CacheGeneration current;
+
+    // Guards generation swaps and the write log replayed onto a generation that is being built
+    private final Object writeLock = new Object();
+    private List<Consumer<CacheGeneration>> pendingWrites;
+    // One per index shard: writes to one listing serialise on its shard's lock, so writers to
+    // different shards only meet briefly on writeLock to log the write and pick the generation
+    private final ReentrantLock[] shardLocks;
+
+    // Bumped after every change that can alter what a read returns; feed ETags are derived from it
+    private final AtomicLong version = new AtomicLong();
+    private final List<ListingCacheListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Newest updatedDate an incremental refresh has seen, or the start of the last full rebuild;
+    // null until the first full rebuild
+    private volatile LocalDateTime watermark;
+    // updatedDate of each row applied inside the overlap window, so re-scanned rows are skipped
+    private final Map<Long, LocalDateTime> appliedInOverlap = new HashMap<>();
+    private int refreshesSinceFullRebuild;
+
+    public ListingCacheService(ListingRepository listingRepository, ListingCacheProperties properties,
+                               ListingPopularityTracker popularityTracker, ObjectMapper objectMapper) {
         this.listingRepository = listingRepository;
         this.properties = properties;
+        this.popularityTracker = popularityTracker;
+        this.objectMapper = objectMapper;
+        // The calling thread always queries one shard itself, so the pool only needs the others
+        this.shardExecutor = properties.getShards() > 1 ? new ForkJoinPool(properties.getShards() - 1) : null;
+        this.shardLocks = new ReentrantLock[Math.max(1, properties.getShards())];
+        for (int i = 0; i < shardLocks.length; i++) {
+            shardLocks[i] = new ReentrantLock();
+        }
+        this.current = newGeneration();
+    }
+
+    private CacheGeneration newGeneration() {
+        int shards = Math.max(1, properties.getShards());
+        ListingIndex index;
+        if (shards == 1) {
+            index = newShard();
+        } else {
+            List<ListingIndex> parts = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                parts.add(newShard());
+            }
+            index = new ShardedListingIndex(parts, shardExecutor);
+        }
+        OffHeapListingStore payloads = properties.getPayloadStorage() == ListingCacheProperties.PayloadStorage.OFF_HEAP
+                ? new OffHeapListingStore()
+                : null;
+        return new CacheGeneration(index, new ConcurrentHashMap<>(), payloads,
+                new ShardedListingSearchIndex(shards, shardExecutor), new ListingSuggestIndex(), new ListingFacetIndex(), new AtomicBoolean());
+    }
+
+    private ListingIndex newShard() {
+        return switch (properties.getIndexType()) {
+            case BPLUS_TREE -> new BPlusTreeNodeIndex(properties.getTreeOrder());
+            case SKIP_LIST -> new BPlusTreeIndex();
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdown();
+        }
     }
 
     @PostConstruct
@@ -46,72 +140,628 @@ public class ListingCacheService {
             log.info("Listing cache disabled via configuration");
             return;
         }
+        log.info("Listing cache using {} index (tree order {}, {} shard(s)) with {} payloads", properties.getIndexType(),
+                properties.getTreeOrder(), Math.max(1, properties.getShards()), properties.getPayloadStorage());
         rebuildCache("startup");
     }
 
     @Scheduled(fixedDelayString = "${listing.cache.refresh-interval-ms:60000}")
     public void scheduledRefresh() {
-        if (properties.isEnabled()) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (payloadsNeedCompaction()) {
+            rebuildCache("off-heap-compaction");
+        } else if (properties.getRefreshMode() == ListingCacheProperties.RefreshMode.INCREMENTAL
+                && watermark != null
+                && ++refreshesSinceFullRebuild < properties.getFullRebuildEvery()) {
+            refreshIncremental();
+        } else {
             rebuildCache("scheduled");
         }
     }
 
+    /**
+     * Applies the listings updated since the watermark through {@link #upsert}, which re-indexes
+     * ACTIVE rows and treats any other status as a tombstone. updatedDate is stamped on the app
+     * server before the row commits, so a row can become visible with a timestamp older than the
+     * watermark; each run therefore re-reads a {@code refresh-overlap-ms} window behind it and
+     * skips rows it already applied at the same updatedDate. Hard deletes are not visible here and
+     * are picked up by the periodic full rebuild.
+     */
     @Transactional(readOnly = true)
-    public void rebuildCache(String reason) {
-        List<Listing> listings = listingRepository.findByStatusOrderByCreatedDateDesc(ListingStatus.ACTIVE);
-        List<ListingCacheEntry> entries = listings.stream()
-                .limit(properties.getPreloadLimit())
-                .map(ListingMapper::toDto)
-                .map(dto -> new ListingCacheEntry(dto, popularityScore(dto)))
-                .collect(Collectors.toList());
-        entriesById.clear();
-        entries.forEach(entry -> entriesById.put(entry.getListingId(), entry));
-        index.rebuild(entries);
-        log.info("Listing cache rebuilt ({} entries) due to {}", entries.size(), reason);
+    public synchronized void refreshIncremental() {
+        LocalDateTime since = watermark;
+        if (since == null) {
+            rebuildCache("incremental-without-watermark");
+            return;
+        }
+        Duration overlap = Duration.ofMillis(properties.getRefreshOverlapMs());
+        List<Listing> changed = listingRepository.findChangedSince(since.minus(overlap));
+        LocalDateTime next = since;
+        int upserts = 0;
+        int evictions = 0;
+        for (Listing listing : changed) {
+            LocalDateTime updated = listing.getUpdatedDate();
+            if (updated != null && updated.equals(appliedInOverlap.get(listing.getListingId()))) {
+                continue;
+            }
+            // Every node runs its own refresh, so these are not announced as local writes
+            applyUpsert(listing);
+            if (listing.getStatus() == ListingStatus.ACTIVE) {
+                upserts++;
+            } else {
+                evictions++;
+            }
+            if (updated != null) {
+                appliedInOverlap.put(listing.getListingId(), updated);
+                if (updated.isAfter(next)) {
+                    next = updated;
+                }
+            }
+        }
+        watermark = next;
+        // Rows older than the next run's window will not be read again
+        LocalDateTime nextFrom = next.minus(overlap);
+        appliedInOverlap.values().removeIf(updated -> updated.isBefore(nextFrom));
+        if (upserts + evictions > 0) {
+            log.debug("Listing cache applied {} upserts and {} evictions since {}", upserts, evictions, since);
+        }
+    }
+
+    /**
+     * Builds the next generation off to the side and publishes it with a single reference swap,
+     * so readers keep using the previous generation until the new one is complete. Upserts and
+     * evictions that land while the build is running are logged and replayed onto the new
+     * generation before it is published.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuildCache(String reason) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        synchronized (writeLock) {
+            pendingWrites = new ArrayList<>();
+        }
+        CacheGeneration next = newGeneration();
+        int loaded;
+        try {
+            List<ListingCacheEntry> entries = loadActiveEntries(next, properties.getPreloadLimit());
+            loaded = entries.size();
+            entries.forEach(entry -> next.entriesById().put(entry.getListingId(), entry));
+            next.index().rebuild(entries);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingWrites = null;
+            }
+            throw e;
+        }
+        next.complete().set(loaded < properties.getPreloadLimit());
+        synchronized (writeLock) {
+            pendingWrites.forEach(write -> write.accept(next));
+            pendingWrites = null;
+            current = next;
+            version.incrementAndGet();
+        }
+        // Rows that committed during the load, or were stamped before startedAt but committed late,
+        // fall inside the overlap window the next incremental refresh re-reads
+        watermark = startedAt;
+        appliedInOverlap.clear();
+        refreshesSinceFullRebuild = 0;
+        listeners.forEach(ListingCacheListener::cacheRebuilt);
+        if (next.payloads() != null) {
+            log.info("Listing cache rebuilt ({} entries, {} KiB off-heap, {} KiB dead) due to {}", next.entriesById().size(),
+                    next.payloads().usedBytes() / 1024, next.payloads().deadBytes() / 1024, reason);
+        } else {
+            log.info("Listing cache rebuilt ({} entries) due to {}", next.entriesById().size(), reason);
+        }
+    }
+
+    /**
+     * Pages through ACTIVE listings newest-first with a keyset cursor on (createdDate, listingId),
+     * projecting straight into DTOs, and stops as soon as {@code limit} rows have been read.
+     */
+    private List<ListingCacheEntry> loadActiveEntries(CacheGeneration generation, int limit) {
+        List<ListingCacheEntry> entries = new ArrayList<>(Math.max(0, Math.min(limit, properties.getPreloadPageSize())));
+        if (limit <= 0) {
+            return entries;
+        }
+        List<ListingDto> page = listingRepository.findDtoPageByStatus(ListingStatus.ACTIVE,
+                PageRequest.of(0, Math.min(limit, properties.getPreloadPageSize())));
+        while (!page.isEmpty()) {
+            for (ListingDto dto : page) {
+                entries.add(generation.entryFor(dto, popularityScore(dto), toJson(dto)));
+                generation.indexSecondary(dto);
+            }
+            int remaining = limit - entries.size();
+            ListingDto last = page.get(page.size() - 1);
+            if (remaining <= 0 || page.size() < properties.getPreloadPageSize() || last.getCreatedDate() == null) {
+                break;
+            }
+            page = listingRepository.findDtoPageByStatusBefore(ListingStatus.ACTIVE, last.getCreatedDate(),
+                    last.getListingId(), PageRequest.of(0, Math.min(remaining, properties.getPreloadPageSize())));
+        }
+        return entries;
     }
 
     public List<ListingDto> latest(int limit) {
-        return toDtoList(index.fetchLatest(limit));
+        return toDtoList(current.index().fetchLatest(limit));
     }
 
     public List<ListingDto> popular(int limit) {
-        return toDtoList(index.fetchPopular(limit));
+        return toDtoList(current.index().fetchPopular(limit));
     }
 
     public List<ListingDto> priceRange(BigDecimal min, BigDecimal max, int limit) {
-        return toDtoList(index.fetchByPriceRange(min, max, limit));
+        return toDtoList(current.index().fetchByPriceRange(min, max, limit));
+    }
+
+    /**
+     * Newest-first listings of one category, or cheapest-first when a price bound is given.
+     * A missing bound is open on that side. Read from the category sub-index when the cache holds
+     * every active listing, otherwise with the same ordering from the database.
+     */
+    @Transactional(readOnly = true)
+    public List<ListingDto> byCategory(Category category, BigDecimal min, BigDecimal max, int limit) {
+        if (!properties.isEnabled() || !holdsAllActive()) {
+            return filteredFromDatabase(category, null, min, max, limit);
+        }
+        ListingIndex index = current.index();
+        if (min == null && max == null) {
+            return toDtoList(index.fetchLatestByCategory(category, limit));
+        }
+        return toDtoList(index.fetchByCategoryAndPriceRange(category, lowerBound(min), upperBound(max), limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListingDto> byCondition(ListingCondition condition, BigDecimal min, BigDecimal max, int limit) {
+        if (!properties.isEnabled() || !holdsAllActive()) {
+            return filteredFromDatabase(null, condition, min, max, limit);
+        }
+        ListingIndex index = current.index();
+        if (min == null && max == null) {
+            return toDtoList(index.fetchLatestByCondition(condition, limit));
+        }
+        return toDtoList(index.fetchByConditionAndPriceRange(condition, lowerBound(min), upperBound(max), limit));
+    }
+
+    private List<ListingDto> filteredFromDatabase(Category category, ListingCondition condition,
+                                                  BigDecimal min, BigDecimal max, int limit) {
+        return listingRepository.findDtoByFilters(ListingStatus.ACTIVE, category, condition, min, max, null, null,
+                min != null || max != null, PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    /**
+     * Answers an arbitrary conjunction of filters from memory (see {@link ListingQueryEngine}),
+     * going to the database when the cache is disabled or does not hold every active listing.
+     */
+    @Transactional(readOnly = true)
+    public List<ListingDto> query(ListingQuery query) {
+        if (properties.isEnabled() && holdsAllActive()) {
+            CacheGeneration generation = current;
+            return toDtoList(ListingQueryEngine.execute(query, generation.index(), generation.entriesById()));
+        }
+        return listingRepository.findDtoByFilters(ListingStatus.ACTIVE, query.category(), query.condition(),
+                query.minPrice(), query.maxPrice(), query.sellerId(), query.createdAfter(), false,
+                PageRequest.of(0, Math.max(1, query.limit())));
+    }
+
+    /**
+     * One seller's listings newest first, optionally narrowed to a single status. ACTIVE pages are
+     * read from the seller's sub-index when the cache is known to hold all active listings; other
+     * statuses, and an incompletely preloaded cache, fall back to a keyset query on
+     * (createdDate, listingId), so every page costs the same however many listings a seller has.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another feed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ListingDto> sellerPage(Long sellerId, ListingStatus status, String cursor, int limit) {
+        ListingCursor after = cursor != null ? ListingCursor.decode(cursor, ListingCursor.Feed.SELLER) : null;
+        if (properties.isEnabled() && status == ListingStatus.ACTIVE && holdsAllActive()) {
+            ListingIndex index = current.index();
+            List<ListingCacheEntry> entries = after == null
+                    ? index.fetchLatestBySeller(sellerId, limit)
+                    : index.fetchLatestBySellerAfter(sellerId, after.createdDate(), after.listingId(), limit);
+            return toPage(ListingCursor.Feed.SELLER, entries, limit);
+        }
+        List<ListingDto> listings = listingRepository.findDtoPageBySeller(sellerId, status,
+                after != null ? after.createdDate() : null, after != null ? after.listingId() : null,
+                PageRequest.of(0, Math.max(1, limit)));
+        ListingDto last = listings.isEmpty() ? null : listings.get(listings.size() - 1);
+        String next = last != null && listings.size() >= limit && last.getCreatedDate() != null
+                ? new ListingCursor(ListingCursor.Feed.SELLER, last.getCreatedDate().toString(), last.getListingId()).encode()
+                : null;
+        return new CursorPage<>(listings, next);
+    }
+
+    /**
+     * Ranked keyword search over ACTIVE listings (see {@link ListingSearchIndex}). Pages are
+     * 1-based. When the cache does not hold every active listing the search falls back to a
+     * substring match in the database, newest first.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<ListingDto> search(String keyword, int page, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            return new PagedResponse<>(List.of(), page, size, 0);
+        }
+        int pageIndex = Math.max(page - 1, 0);
+        if (properties.isEnabled() && holdsAllActive()) {
+            CacheGeneration generation = current;
+            int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageIndex * size);
+            ListingSearchIndex.Result result = generation.search().search(keyword, offset, size);
+            List<ListingDto> items = new ArrayList<>(result.listingIds().size());
+            for (Long listingId : result.listingIds()) {
+                ListingCacheEntry entry = generation.entriesById().get(listingId);
+                if (entry != null) {
+                    items.add(entry.getListingDto());
+                }
+            }
+            return new PagedResponse<>(items, page, size, result.total());
+        }
+        Page<ListingDto> results = listingRepository.searchDtoByKeyword(keyword.trim(), ListingStatus.ACTIVE,
+                PageRequest.of(pageIndex, size));
+        return new PagedResponse<>(results.getContent(), page, size, results.getTotalElements());
+    }
+
+    /**
+     * Category, condition and price-bucket counts over the ACTIVE listings matching
+     * {@code keyword}, or over all of them when it is blank. Answered from the facet bitsets when
+     * the cache holds every active listing, otherwise with one grouped query.
+     */
+    public ListingFacetIndex.Facets facets(String keyword) {
+        boolean blank = keyword == null || keyword.isBlank();
+        if (properties.isEnabled() && holdsAllActive()) {
+            CacheGeneration generation = current;
+            return blank ? generation.facets().countAll() : generation.facets().count(generation.search().matchingIds(keyword));
+        }
+        return ListingFacetIndex.fromRows(listingRepository.countFacets(ListingStatus.ACTIVE, blank ? null : keyword.trim()));
+    }
+
+    /**
+     * Typo-tolerant completions of what a user has typed so far, drawn from active listing titles
+     * and category names (see {@link ListingSuggestIndex}). Empty when the cache is disabled,
+     * since the point is to keep keystrokes away from the database.
+     */
+    public List<ListingSuggestIndex.Suggestion> suggest(String text, int limit) {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        return current.suggest().suggest(text, limit);
+    }
+
+    /**
+     * Monotonic stamp of the cache contents. It only moves after a write has become visible, so
+     * anything rendered after reading a given value is at least as new as that value.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Keyset variants of the feeds above: a null cursor starts at the head, otherwise the scan
+     * resumes strictly after the position the cursor encodes. The next cursor is null once a
+     * page comes back short.
+     */
+    public CursorPage<ListingDto> latestPage(String cursor, int limit) {
+        return toPage(ListingCursor.Feed.LATEST, latestEntries(cursor, limit), limit);
+    }
+
+    public CursorPage<ListingDto> popularPage(String cursor, int limit) {
+        return toPage(ListingCursor.Feed.POPULAR, popularEntries(cursor, limit), limit);
+    }
+
+    public CursorPage<ListingDto> priceRangePage(BigDecimal min, BigDecimal max, String cursor, int limit) {
+        return toPage(ListingCursor.Feed.PRICE, priceRangeEntries(min, max, cursor, limit), limit);
+    }
+
+    /**
+     * Same pages as above, assembled by concatenating each entry's pre-encoded JSON fragment
+     * instead of serializing the DTOs again.
+     */
+    public ListingJsonPage latestJson(String cursor, int limit) {
+        return toJsonPage(ListingCursor.Feed.LATEST, latestEntries(cursor, limit), limit);
+    }
+
+    public ListingJsonPage popularJson(String cursor, int limit) {
+        return toJsonPage(ListingCursor.Feed.POPULAR, popularEntries(cursor, limit), limit);
+    }
+
+    public ListingJsonPage priceRangeJson(BigDecimal min, BigDecimal max, String cursor, int limit) {
+        return toJsonPage(ListingCursor.Feed.PRICE, priceRangeEntries(min, max, cursor, limit), limit);
+    }
+
+    private List<ListingCacheEntry> latestEntries(String cursor, int limit) {
+        ListingIndex index = current.index();
+        if (cursor == null) {
+            return index.fetchLatest(limit);
+        }
+        ListingCursor after = ListingCursor.decode(cursor, ListingCursor.Feed.LATEST);
+        return index.fetchLatestAfter(after.createdDate(), after.listingId(), limit);
+    }
+
+    private List<ListingCacheEntry> popularEntries(String cursor, int limit) {
+        ListingIndex index = current.index();
+        if (cursor == null) {
+            return index.fetchPopular(limit);
+        }
+        ListingCursor after = ListingCursor.decode(cursor, ListingCursor.Feed.POPULAR);
+        return index.fetchPopularAfter(after.popularityScore(), after.listingId(), limit);
+    }
+
+    private List<ListingCacheEntry> priceRangeEntries(BigDecimal min, BigDecimal max, String cursor, int limit) {
+        ListingIndex index = current.index();
+        if (cursor == null) {
+            return index.fetchByPriceRange(min, max, limit);
+        }
+        ListingCursor after = ListingCursor.decode(cursor, ListingCursor.Feed.PRICE);
+        return index.fetchByPriceRangeAfter(min, max, after.price(), after.listingId(), limit);
     }
 
     public Optional<ListingDto> findById(Long id) {
-        ListingCacheEntry entry = entriesById.get(id);
+        ListingCacheEntry entry = current.entriesById().get(id);
         return entry != null ? Optional.of(entry.getListingDto()) : Optional.empty();
     }
 
+    /**
+     * Every listing the current generation holds, in no particular order.
+     */
+    public List<ListingDto> activeListings() {
+        return current.entriesById().values().stream().map(ListingCacheEntry::getListingDto).toList();
+    }
+
+    /**
+     * Re-keys cached entries whose decayed engagement score has moved since they were indexed, so
+     * the popularity ordering tracks current demand without touching the database.
+     */
+    @Scheduled(fixedDelayString = "${listing.cache.popularity-rerank-interval-ms:30000}")
+    public void rerankPopularity() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        popularityTracker.prune();
+        boolean changed = current.entriesById().values().stream().anyMatch(entry ->
+                popularityTracker.rankKey(entry.getListingId(), entry.getCreatedDate()) != entry.getPopularityScore());
+        if (!changed) {
+            return;
+        }
+        applyWriteToAll(generation -> {
+            for (ListingCacheEntry entry : generation.entriesById().values()) {
+                long score = popularityTracker.rankKey(entry.getListingId(), entry.getCreatedDate());
+                if (score != entry.getPopularityScore()) {
+                    ListingCacheEntry reranked = entry.withPopularityScore(score);
+                    generation.entriesById().put(reranked.getListingId(), reranked);
+                    generation.index().replace(reranked);
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces whatever the cache holds for this listing. Listings that are no longer ACTIVE
+     * (sold, deleted, ...) are dropped instead of re-indexed.
+     */
     public void upsert(Listing listing) {
-        ListingDto dto = ListingMapper.toDto(listing);
-        ListingCacheEntry entry = new ListingCacheEntry(dto, popularityScore(dto));
-        entriesById.put(entry.getListingId(), entry);
-        index.insert(entry);
+        Long listingId = applyUpsert(listing);
+        listeners.forEach(listener -> listener.listingWritten(listingId));
     }
 
     public void evict(Long listingId) {
-        entriesById.remove(listingId);
-        index.remove(listingId);
+        applyEvict(listingId);
+        listeners.forEach(listener -> listener.listingWritten(listingId));
+    }
+
+    /**
+     * Re-reads one listing from the database after another node changed it: re-indexed if it
+     * still exists, evicted otherwise. Unlike {@link #upsert}, this is not a local write.
+     */
+    @Transactional(readOnly = true)
+    public void reload(Long listingId) {
+        Optional<Listing> listing = listingRepository.findById(listingId);
+        if (listing.isPresent()) {
+            applyUpsert(listing.get());
+        } else {
+            applyEvict(listingId);
+        }
+    }
+
+    private Long applyUpsert(Listing listing) {
+        ListingDto dto = ListingMapper.toDto(listing);
+        long score = popularityScore(dto);
+        byte[] json = toJson(dto);
+        boolean active = dto.getStatus() == ListingStatus.ACTIVE;
+        applyWrite(dto.getListingId(), generation -> {
+            if (!active) {
+                // Checked before building an entry so a tombstone never writes off-heap records
+                drop(generation, dto.getListingId());
+                return;
+            }
+            // Built per generation so a replayed write lands in the new generation's payload store
+            ListingCacheEntry entry = generation.entryFor(dto, score, json);
+            ListingCacheEntry previous = generation.entriesById().put(entry.getListingId(), entry);
+            if (previous != null) {
+                previous.releasePayload();
+            }
+            generation.indexSecondary(dto);
+            generation.index().replace(entry);
+        });
+        trimToPreloadLimit();
+        listeners.forEach(listener -> listener.listingChanged(dto.getListingId()));
+        return dto.getListingId();
+    }
+
+    // Upserts between rebuilds hold the cache to the preload limit by dropping its oldest listings;
+    // once any are dropped the generation no longer holds every active listing
+    private void trimToPreloadLimit() {
+        CacheGeneration generation = current;
+        int limit = properties.getPreloadLimit();
+        int excess = generation.entriesById().size() - limit;
+        if (excess <= 0) {
+            return;
+        }
+        for (ListingCacheEntry oldest : generation.index().fetchCreatedAfter(LocalDateTime.MIN, excess)) {
+            if (generation.entriesById().size() <= limit) {
+                break;
+            }
+            long listingId = oldest.getListingId();
+            applyWrite(listingId, next -> {
+                drop(next, listingId);
+                next.complete().set(false);
+            });
+        }
+    }
+
+    // Whether the current generation holds every ACTIVE listing, so that a seller's cached listings
+    // are all of their active listings rather than just the newest ones
+    private boolean holdsAllActive() {
+        return current.complete().get();
+    }
+
+    private void applyEvict(Long listingId) {
+        applyWrite(listingId, generation -> drop(generation, listingId));
+        listeners.forEach(listener -> listener.listingChanged(listingId));
+    }
+
+    private static void drop(CacheGeneration generation, long listingId) {
+        ListingCacheEntry removed = generation.entriesById().remove(listingId);
+        if (removed != null) {
+            removed.releasePayload();
+        }
+        generation.index().remove(listingId);
+        generation.removeSecondary(listingId);
+    }
+
+    // Off-heap records are never reclaimed in place, so once enough of the store is dead the next
+    // scheduled refresh rebuilds into a fresh store instead of appending further
+    private boolean payloadsNeedCompaction() {
+        OffHeapListingStore payloads = current.payloads();
+        return payloads != null && payloads.deadBytes() * 100 > payloads.usedBytes() * properties.getOffHeapMaxDeadPercent();
+    }
+
+    public void addListener(ListingCacheListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Applies a write touching one listing under that listing's shard lock. The global lock is
+     * only held to pick the generation and log the write for replay, so a rebuild replays writes
+     * to the same listing in the order they were applied.
+     */
+    private void applyWrite(long listingId, Consumer<CacheGeneration> write) {
+        ReentrantLock shardLock = shardLocks[ShardedListingIndex.shardOf(listingId, shardLocks.length)];
+        shardLock.lock();
+        try {
+            apply(write);
+        } finally {
+            shardLock.unlock();
+        }
+    }
+
+    // For writes spanning listings; shard locks are always taken in index order, so this cannot deadlock
+    private void applyWriteToAll(Consumer<CacheGeneration> write) {
+        for (ReentrantLock shardLock : shardLocks) {
+            shardLock.lock();
+        }
+        try {
+            apply(write);
+        } finally {
+            for (ReentrantLock shardLock : shardLocks) {
+                shardLock.unlock();
+            }
+        }
+    }
+
+    private void apply(Consumer<CacheGeneration> write) {
+        CacheGeneration generation;
+        synchronized (writeLock) {
+            generation = current;
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+        write.accept(generation);
+        // Bumped only once the write is visible, so a feed rendered before it carries the older version
+        version.incrementAndGet();
     }
 
     private List<ListingDto> toDtoList(List<ListingCacheEntry> entries) {
         return entries.stream().map(ListingCacheEntry::getListingDto).collect(Collectors.toList());
     }
 
+    private static BigDecimal lowerBound(BigDecimal min) {
+        return min != null ? min : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal upperBound(BigDecimal max) {
+        return max != null ? max : BigDecimal.valueOf(Long.MAX_VALUE);
+    }
+
+    private CursorPage<ListingDto> toPage(ListingCursor.Feed feed, List<ListingCacheEntry> entries, int limit) {
+        return new CursorPage<>(toDtoList(entries), nextCursor(feed, entries, limit));
+    }
+
+    private static String nextCursor(ListingCursor.Feed feed, List<ListingCacheEntry> entries, int limit) {
+        return !entries.isEmpty() && entries.size() >= limit
+                ? ListingCursor.after(feed, entries.get(entries.size() - 1)).encode()
+                : null;
+    }
+
+    private ListingJsonPage toJsonPage(ListingCursor.Feed feed, List<ListingCacheEntry> entries, int limit) {
+        byte[][] fragments = new byte[entries.size()][];
+        int length = 2 + Math.max(0, entries.size() - 1);
+        for (int i = 0; i < fragments.length; i++) {
+            byte[] fragment = entries.get(i).getJson();
+            fragments[i] = fragment != null ? fragment : toJson(entries.get(i).getListingDto());
+            length += fragments[i].length;
+        }
+        byte[] body = new byte[length];
+        int position = 0;
+        body[position++] = '[';
+        for (int i = 0; i < fragments.length; i++) {
+            if (i > 0) {
+                body[position++] = ',';
+            }
+            System.arraycopy(fragments[i], 0, body, position, fragments[i].length);
+            position += fragments[i].length;
+        }
+        body[position] = ']';
+        return new ListingJsonPage(body, nextCursor(feed, entries, limit));
+    }
+
+    private byte[] toJson(ListingDto dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode listing " + dto.getListingId(), e);
+        }
+    }
+
     private long popularityScore(ListingDto dto) {
         LocalDateTime created = dto.getCreatedDate() != null ? dto.getCreatedDate() : dto.getUpdatedDate();
-        if (created == null) {
-            created = LocalDateTime.now();
+        return popularityTracker.rankKey(dto.getListingId(), created);
+    }
+
+    private record CacheGeneration(ListingIndex index, Map<Long, ListingCacheEntry> entriesById,
+                                   OffHeapListingStore payloads, ShardedListingSearchIndex search,
+                                   ListingSuggestIndex suggest, ListingFacetIndex facets, AtomicBoolean complete) {
+
+        ListingCacheEntry entryFor(ListingDto dto, long popularityScore, byte[] json) {
+            return new ListingCacheEntry(dto, popularityScore, json, payloads);
+        }
+
+        // Search, suggest and facet indexes only ever hold ACTIVE listings, like the main index
+        void indexSecondary(ListingDto dto) {
+            search.index(dto.getListingId(), dto.getTitle(), dto.getDescription());
+            suggest.index(dto.getListingId(), dto.getTitle(), dto.getCategory());
+            facets.index(dto.getListingId(), dto.getCategory(), dto.getCondition(), dto.getPrice());
+        }
+
+        void removeSecondary(long listingId) {
+            search.remove(listingId);
+            suggest.remove(listingId);
+            facets.remove(listingId);
         }
-        long minutesAgo = Duration.between(created, LocalDateTime.now()).toMinutes();
-        long recencyScore = Math.max(0, 1_000_000L - minutesAgo);
-        BigDecimal price = dto.getPrice() != null ? dto.getPrice() : BigDecimal.ZERO;
-        return recencyScore + price.longValue();
     }
 }
 
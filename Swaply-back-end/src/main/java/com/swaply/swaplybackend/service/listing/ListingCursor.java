@@ -0,0 +1,78 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingCacheEntry;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque resume token for the cached listing feeds: the (key, listingId) of the last entry a
+ * client received, tagged with the feed it came from so a token cannot be replayed on another one.
+ */
+public record ListingCursor(Feed feed, String key, long listingId) {
+
+    public enum Feed {
+        LATEST, POPULAR, PRICE, SELLER
+    }
+
+    private static final char SEPARATOR = '|';
+
+    public static ListingCursor after(Feed feed, ListingCacheEntry last) {
+        String key = switch (feed) {
+            case LATEST, SELLER -> last.getCreatedDate().toString();
+            case POPULAR -> Long.toString(last.getPopularityScore());
+            case PRICE -> last.getPrice().toPlainString();
+        };
+        return new ListingCursor(feed, key, last.getListingId());
+    }
+
+    public String encode() {
+        String raw = feed.name() + SEPARATOR + key + SEPARATOR + listingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()} for the given feed.
+     *
+     * @throws IllegalArgumentException if the token is malformed or belongs to another feed
+     */
+    public static ListingCursor decode(String token, Feed expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last) {
+                throw new IllegalArgumentException("Malformed listing cursor");
+            }
+            Feed feed = Feed.valueOf(raw.substring(0, first));
+            if (feed != expected) {
+                throw new IllegalArgumentException("Cursor was issued for the " + feed + " feed");
+            }
+            ListingCursor cursor = new ListingCursor(feed, raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+            // Parse the key once here so a bad token fails fast instead of inside the index
+            switch (feed) {
+                case LATEST, SELLER -> cursor.createdDate();
+                case POPULAR -> cursor.popularityScore();
+                case PRICE -> cursor.price();
+            }
+            return cursor;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed listing cursor", e);
+        }
+    }
+
+    public LocalDateTime createdDate() {
+        return LocalDateTime.parse(key);
+    }
+
+    public long popularityScore() {
+        return Long.parseLong(key);
+    }
+
+    public BigDecimal price() {
+        return new BigDecimal(key);
+    }
+}
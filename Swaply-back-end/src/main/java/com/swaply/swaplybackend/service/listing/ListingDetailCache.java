@@ -0,0 +1,122 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import com.swaply.swaplybackend.service.ListingMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache-aside read path for single listings. Preloaded listings come straight out of
+ * {@link ListingCacheService}; everything else (older, sold, or beyond the preload limit) goes
+ * through a bounded Caffeine tier that also remembers ids that do not exist, so repeated lookups
+ * of a missing id stop reaching the database. Both tiers are invalidated through
+ * {@link ListingCacheListener} whenever the listing cache applies a change.
+ */
+@Component
+public class ListingDetailCache implements ListingCacheListener {
+
+    private final ListingCacheService cacheService;
+    private final ListingRepository listingRepository;
+    // Optional.empty() marks an id the database did not have
+    private final Cache<Long, Optional<ListingDto>> loaded;
+
+    private final LongAdder preloadedHits = new LongAdder();
+    private final LongAdder loadedHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public ListingDetailCache(ListingCacheService cacheService, ListingRepository listingRepository,
+                              ListingCacheProperties properties) {
+        this(cacheService, listingRepository, properties, Ticker.systemTicker());
+    }
+
+    ListingDetailCache(ListingCacheService cacheService, ListingRepository listingRepository,
+                       ListingCacheProperties properties, Ticker ticker) {
+        this.cacheService = cacheService;
+        this.listingRepository = listingRepository;
+        long ttlNanos = Duration.ofSeconds(properties.getDetailCacheTtlSeconds()).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(properties.getDetailNegativeTtlSeconds()).toNanos();
+        this.loaded = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, properties.getDetailCacheSize()))
+                .expireAfter(new Expiry<Long, Optional<ListingDto>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<ListingDto> value, long currentTime) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<ListingDto> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<ListingDto> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .build();
+        cacheService.addListener(this);
+    }
+
+    public Optional<ListingDto> find(Long id) {
+        Optional<ListingDto> preloaded = cacheService.findById(id);
+        if (preloaded.isPresent()) {
+            preloadedHits.increment();
+            return preloaded;
+        }
+        boolean[] missed = new boolean[1];
+        // Loading inside the cache means an invalidation racing the load waits for it, rather than
+        // the load writing a stale value back after the invalidation
+        Optional<ListingDto> result = loaded.get(id, key -> {
+            missed[0] = true;
+            return listingRepository.findById(key).map(ListingMapper::toDto);
+        });
+        if (missed[0]) {
+            misses.increment();
+        } else if (result.isPresent()) {
+            loadedHits.increment();
+        } else {
+            negativeHits.increment();
+        }
+        return result;
+    }
+
+    @Override
+    public void listingChanged(Long listingId) {
+        loaded.invalidate(listingId);
+    }
+
+    @Override
+    public void cacheRebuilt() {
+        // A full rebuild is how changes made by other instances arrive, so nothing loaded before it can be trusted
+        loaded.invalidateAll();
+    }
+
+    public Stats stats() {
+        return new Stats(preloadedHits.sum(), loadedHits.sum(), negativeHits.sum(), misses.sum(), loaded.estimatedSize());
+    }
+
+    public record Stats(long preloadedHits, long loadedHits, long negativeHits, long misses, long loadedSize) {
+
+        public long hits() {
+            return preloadedHits + loadedHits + negativeHits;
+        }
+
+        public double hitRate() {
+            long requests = hits() + misses;
+            return requests == 0 ? 0.0 : (double) hits() / requests;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.swaply.swaplybackend.service.listing;
+
+/**
+ * A rendered feed page together with the strong ETag it was served under. The page is null when
+ * the client's If-None-Match already matched, in which case nothing was rendered.
+ */
+public record ListingFeed(String etag, ListingJsonPage page) {
+
+    public boolean notModified() {
+        return page == null;
+    }
+}
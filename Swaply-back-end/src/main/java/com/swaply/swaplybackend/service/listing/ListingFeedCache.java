@@ -0,0 +1,99 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Small LRU of rendered feed responses keyed by (endpoint, parameters, cursor). Every response is
+ * stamped with {@link ListingCacheService#version()} at render time; once the cache has moved on
+ * the whole LRU is dropped, so upserts and evictions invalidate it without any bookkeeping. The
+ * ETag depends only on that version and the key, so a revalidating client is answered before
+ * anything is rendered.
+ */
+@Component
+public class ListingFeedCache {
+
+    private final ListingCacheService cacheService;
+    private final int capacity;
+    // Distinguishes ETags across restarts, when the version counter starts again from zero
+    private final String bootStamp = Long.toHexString(System.currentTimeMillis());
+    private final Map<String, ListingFeed> responses;
+    private long responsesVersion = -1;
+
+    public ListingFeedCache(ListingCacheService cacheService, ListingCacheProperties properties) {
+        this.cacheService = cacheService;
+        this.capacity = Math.max(1, properties.getFeedResponseCacheSize());
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ListingFeed> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public ListingFeed latest(String cursor, int limit, String ifNoneMatch) {
+        return render("latest|" + limit + "|" + cursor, ifNoneMatch, () -> cacheService.latestJson(cursor, limit));
+    }
+
+    public ListingFeed popular(String cursor, int limit, String ifNoneMatch) {
+        return render("popular|" + limit + "|" + cursor, ifNoneMatch, () -> cacheService.popularJson(cursor, limit));
+    }
+
+    public ListingFeed priceRange(BigDecimal min, BigDecimal max, String cursor, int limit, String ifNoneMatch) {
+        String key = "price-range|" + min.stripTrailingZeros().toPlainString() + "|"
+                + max.stripTrailingZeros().toPlainString() + "|" + limit + "|" + cursor;
+        return render(key, ifNoneMatch, () -> cacheService.priceRangeJson(min, max, cursor, limit));
+    }
+
+    private ListingFeed render(String key, String ifNoneMatch, Supplier<ListingJsonPage> renderer) {
+        // Read before rendering: the page can only be newer than the stamp it is stored under
+        long version = cacheService.version();
+        String etag = etag(version, key);
+        if (matches(ifNoneMatch, etag)) {
+            return new ListingFeed(etag, null);
+        }
+        synchronized (responses) {
+            if (responsesVersion != version) {
+                responses.clear();
+                responsesVersion = version;
+            }
+            ListingFeed cached = responses.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ListingFeed feed = new ListingFeed(etag, renderer.get());
+        synchronized (responses) {
+            if (responsesVersion == version) {
+                responses.put(key, feed);
+            }
+        }
+        return feed;
+    }
+
+    // Weak validators (W/"...") compare by their opaque tag, as If-None-Match uses weak comparison
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(long version, String key) {
+        return "\"" + bootStamp + "-" + Long.toHexString(version) + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+}
@@ -0,0 +1,20 @@
+package com.swaply.swaplybackend.service.listing;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries "this listing changed" notices between the nodes of a deployment, so every node's
+ * {@link ListingCacheService} can re-read listings written elsewhere. The bus numbers events with
+ * one sequence shared by all nodes and hands them to subscribers in that order, including the
+ * subscriber's own node's events; {@link ListingInvalidationRelay} is the only subscriber in
+ * the application. Which implementation is used is set with {@code listing.cache.invalidation-bus}.
+ */
+public interface ListingInvalidationBus {
+
+    void publish(String origin, Long listingId);
+
+    void subscribe(Consumer<Event> subscriber);
+
+    record Event(long sequence, String origin, long listingId) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.swaply.swaplybackend.service.listing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Keeps this node's listing cache coherent with the other nodes: every write made through this
+ * node's {@link ListingCacheService} is published on the {@link ListingInvalidationBus}, and
+ * every event another node published is applied by re-reading that listing. A write made inside
+ * a transaction is only published once it commits, so other nodes never re-read it too early and
+ * a failed publish cannot roll the write back. Events are applied in bus order; one whose
+ * sequence is not past the last applied one is a redelivery and skipped.
+ */
+@Component
+public class ListingInvalidationRelay implements ListingCacheListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingInvalidationRelay.class);
+
+    private final ListingCacheService cacheService;
+    private final ListingInvalidationBus bus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private long lastApplied;
+
+    public ListingInvalidationRelay(ListingCacheService cacheService, ListingInvalidationBus bus) {
+        this.cacheService = cacheService;
+        this.bus = bus;
+        cacheService.addListener(this);
+        bus.subscribe(this::apply);
+    }
+
+    @Override
+    public void listingChanged(Long listingId) {
+    }
+
+    @Override
+    public void cacheRebuilt() {
+    }
+
+    @Override
+    public void listingWritten(Long listingId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(listingId);
+                }
+            });
+        } else {
+            publish(listingId);
+        }
+    }
+
+    private void publish(Long listingId) {
+        try {
+            bus.publish(nodeId, listingId);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; other nodes catch up on their next scheduled refresh
+            log.warn("Failed to publish invalidation for listing {}", listingId, e);
+        }
+    }
+
+    synchronized void apply(ListingInvalidationBus.Event event) {
+        if (event.sequence() <= lastApplied) {
+            return;
+        }
+        lastApplied = event.sequence();
+        if (nodeId.equals(event.origin())) {
+            return;
+        }
+        try {
+            cacheService.reload(event.listingId());
+        } catch (RuntimeException e) {
+            // The next scheduled refresh picks the listing up instead
+            log.warn("Failed to apply invalidation {} for listing {}", event.sequence(), event.listingId(), e);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,8 @@
+package com.swaply.swaplybackend.service.listing;
+
+/**
+ * A feed page already encoded as a JSON array, plus the cursor for the page after it (null on
+ * the last page).
+ */
+public record ListingJsonPage(byte[] json, String nextCursor) {
+}
@@ -0,0 +1,147 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Exponentially decayed engagement scores per listing. Scores live in parallel primitive arrays
+ * (one slot per listing) found through a primitive open-addressing map, and are only decayed
+ * lazily when touched, so recording a signal is an unboxed probe plus a couple of array writes.
+ */
+@Component
+public class ListingPopularityTracker {
+
+    public enum Signal {
+        VIEW(1.0),
+        CHAT_OPEN(3.0),
+        CART_ADD(5.0),
+        BID(8.0);
+
+        private final double weight;
+
+        Signal(double weight) {
+            this.weight = weight;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    // Slots that have decayed below this are dropped on prune()
+    private static final double PRUNE_BELOW = 0.05;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Rank keys carry minutes since 2020-01-01 in the low bits as a recency tie-break (fits until ~2051)
+    private static final int RECENCY_BITS = 24;
+    private static final long RECENCY_MASK = (1L << RECENCY_BITS) - 1;
+    private static final long RECENCY_EPOCH_MINUTES =
+            LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) / 60;
+    private static final long MAX_ENGAGEMENT_MILLIS = Long.MAX_VALUE >>> RECENCY_BITS;
+
+    private final double decayPerMs;
+    private final LongSupplier clock;
+    private final LongIntHashMap slots = new LongIntHashMap(INITIAL_CAPACITY);
+    private long[] listingIds = new long[INITIAL_CAPACITY];
+    private double[] scores = new double[INITIAL_CAPACITY];
+    private long[] touchedAt = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @Autowired
+    public ListingPopularityTracker(ListingCacheProperties properties) {
+        this(properties.getPopularityDecayMinutes(), System::currentTimeMillis);
+    }
+
+    // popularityDecayMinutes is the half-life: an untouched score halves every that many minutes
+    ListingPopularityTracker(int halfLifeMinutes, LongSupplier clock) {
+        this.decayPerMs = Math.log(2) / (Math.max(1, halfLifeMinutes) * 60_000.0);
+        this.clock = clock;
+    }
+
+    public synchronized void record(Long listingId, Signal signal) {
+        if (listingId == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        int slot = slots.get(listingId);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = allocate(listingId);
+            scores[slot] = signal.getWeight();
+        } else {
+            scores[slot] = decayed(slot, now) + signal.getWeight();
+        }
+        touchedAt[slot] = now;
+    }
+
+    public synchronized double score(Long listingId) {
+        if (listingId == null) {
+            return 0.0;
+        }
+        int slot = slots.get(listingId);
+        return slot == LongIntHashMap.MISSING ? 0.0 : decayed(slot, clock.getAsLong());
+    }
+
+    /**
+     * Sort key for the popularity ordering: decayed engagement (in thousandths) in the high bits
+     * and creation minute in the low bits, so listings nobody has touched yet rank newest first.
+     */
+    public long rankKey(Long listingId, LocalDateTime created) {
+        long engagement = Math.min(MAX_ENGAGEMENT_MILLIS, Math.round(score(listingId) * 1_000));
+        long minutes = created != null ? created.toEpochSecond(ZoneOffset.UTC) / 60 - RECENCY_EPOCH_MINUTES : 0;
+        return (engagement << RECENCY_BITS) | Math.max(0, Math.min(RECENCY_MASK, minutes));
+    }
+
+    /**
+     * Drops listings whose score has decayed to noise, compacting the arrays by moving the last
+     * slot into each hole. Returns the number of slots freed.
+     */
+    public synchronized int prune() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        int slot = 0;
+        while (slot < size) {
+            if (decayed(slot, now) < PRUNE_BELOW) {
+                slots.remove(listingIds[slot]);
+                int last = --size;
+                if (slot != last) {
+                    listingIds[slot] = listingIds[last];
+                    scores[slot] = scores[last];
+                    touchedAt[slot] = touchedAt[last];
+                    slots.put(listingIds[slot], slot);
+                }
+                removed++;
+            } else {
+                slot++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private double decayed(int slot, long now) {
+        long elapsed = Math.max(0, now - touchedAt[slot]);
+        return scores[slot] * Math.exp(-decayPerMs * elapsed);
+    }
+
+    private int allocate(long listingId) {
+        if (size == listingIds.length) {
+            int capacity = listingIds.length * 2;
+            listingIds = Arrays.copyOf(listingIds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            touchedAt = Arrays.copyOf(touchedAt, capacity);
+        }
+        int slot = size++;
+        listingIds[slot] = listingId;
+        slots.put(listingId, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,51 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingCacheEntry;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Conjunction of optional listing filters; a null field does not constrain the result. Matches
+ * are returned newest first.
+ */
+public record ListingQuery(Category category,
+                           ListingCondition condition,
+                           BigDecimal minPrice,
+                           BigDecimal maxPrice,
+                           Long sellerId,
+                           LocalDateTime createdAfter,
+                           int limit) {
+
+    public ListingQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public BigDecimal priceFloor() {
+        return minPrice != null ? minPrice : BigDecimal.ZERO;
+    }
+
+    public BigDecimal priceCeiling() {
+        return maxPrice != null ? maxPrice : BigDecimal.valueOf(Long.MAX_VALUE);
+    }
+
+    public boolean matches(ListingCacheEntry entry) {
+        return (category == null || category == entry.getCategory())
+                && (condition == null || condition == entry.getCondition())
+                && (!hasPriceRange() || (entry.getPrice().compareTo(priceFloor()) >= 0
+                        && entry.getPrice().compareTo(priceCeiling()) <= 0))
+                && (sellerId == null || sellerId.equals(entry.getSellerId()))
+                && (createdAfter == null || entry.getCreatedDate().isAfter(createdAfter));
+    }
+}
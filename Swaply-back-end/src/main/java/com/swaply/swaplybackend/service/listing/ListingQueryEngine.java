@@ -0,0 +1,167 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingCacheEntry;
+import com.swaply.swaplybackend.cache.listing.ListingIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Plans and runs a {@link ListingQuery} against one cache generation. The most selective indexed
+ * predicate drives: category, condition and seller sizes are known up front, while range
+ * predicates are probed with a scan capped at the best size seen so far. The remaining indexed
+ * predicates are intersected as sorted arrays of listing ids, sized by the matches rather than by
+ * the largest id, unless the surviving candidate set is already so small that testing each
+ * candidate is cheaper than materialising another array.
+ */
+final class ListingQueryEngine {
+
+    // A predicate matching more than this many times the current candidates is checked per candidate instead
+    private static final int RESIDUAL_RATIO = 8;
+
+    private static final Comparator<ListingCacheEntry> NEWEST_FIRST =
+            Comparator.comparing(ListingCacheEntry::getCreatedDate)
+                    .thenComparing(ListingCacheEntry::getListingId)
+                    .reversed();
+
+    private ListingQueryEngine() {
+    }
+
+    static List<ListingCacheEntry> execute(ListingQuery query, ListingIndex index,
+                                           Map<Long, ListingCacheEntry> entriesById) {
+        List<IndexedPredicate> predicates = indexedPredicates(query, index);
+        if (predicates.isEmpty()) {
+            return index.fetchLatest(query.limit());
+        }
+
+        // Cheapest known source first; range predicates only qualify if a capped probe beats it
+        IndexedPredicate driver = new IndexedPredicate(index.size(), index::fetchLatest, entry -> true);
+        for (IndexedPredicate predicate : predicates) {
+            if (predicate.size >= 0 && predicate.size < driver.size) {
+                driver = predicate;
+            }
+        }
+        for (IndexedPredicate predicate : predicates) {
+            if (predicate.size < 0) {
+                List<ListingCacheEntry> probe = predicate.scan.apply(driver.size + 1);
+                predicate.size = probe.size() <= driver.size ? probe.size() : Integer.MAX_VALUE;
+                if (probe.size() <= driver.size) {
+                    predicate.scanned = probe;
+                    driver = predicate;
+                }
+            }
+        }
+
+        long[] candidates = sortedIds(driver.entries());
+        List<Predicate<ListingCacheEntry>> residual = new ArrayList<>();
+        predicates.sort(Comparator.comparingInt(predicate -> predicate.size));
+        for (IndexedPredicate predicate : predicates) {
+            if (predicate == driver) {
+                continue;
+            }
+            if (candidates.length == 0) {
+                return List.of();
+            }
+            if ((long) predicate.size > (long) RESIDUAL_RATIO * candidates.length) {
+                residual.add(predicate.matcher);
+                continue;
+            }
+            candidates = intersect(candidates, sortedIds(predicate.entries()));
+        }
+
+        List<ListingCacheEntry> matches = new ArrayList<>(candidates.length);
+        for (long id : candidates) {
+            ListingCacheEntry entry = entriesById.get(id);
+            if (entry != null && residual.stream().allMatch(test -> test.test(entry))) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(NEWEST_FIRST);
+        return matches.size() > query.limit() ? matches.subList(0, query.limit()) : matches;
+    }
+
+    private static List<IndexedPredicate> indexedPredicates(ListingQuery query, ListingIndex index) {
+        List<IndexedPredicate> predicates = new ArrayList<>();
+        if (query.category() != null) {
+            predicates.add(new IndexedPredicate(index.countByCategory(query.category()),
+                    limit -> index.fetchLatestByCategory(query.category(), limit),
+                    entry -> query.category() == entry.getCategory()));
+        }
+        if (query.condition() != null) {
+            predicates.add(new IndexedPredicate(index.countByCondition(query.condition()),
+                    limit -> index.fetchLatestByCondition(query.condition(), limit),
+                    entry -> query.condition() == entry.getCondition()));
+        }
+        if (query.sellerId() != null) {
+            predicates.add(new IndexedPredicate(index.countBySeller(query.sellerId()),
+                    limit -> index.fetchLatestBySeller(query.sellerId(), limit),
+                    entry -> query.sellerId().equals(entry.getSellerId())));
+        }
+        if (query.hasPriceRange()) {
+            predicates.add(new IndexedPredicate(-1,
+                    limit -> index.fetchByPriceRange(query.priceFloor(), query.priceCeiling(), limit),
+                    entry -> entry.getPrice().compareTo(query.priceFloor()) >= 0
+                            && entry.getPrice().compareTo(query.priceCeiling()) <= 0));
+        }
+        if (query.createdAfter() != null) {
+            predicates.add(new IndexedPredicate(-1,
+                    limit -> index.fetchCreatedAfter(query.createdAfter(), limit),
+                    entry -> entry.getCreatedDate().isAfter(query.createdAfter())));
+        }
+        return predicates;
+    }
+
+    private static long[] sortedIds(List<ListingCacheEntry> entries) {
+        long[] ids = new long[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i).getListingId();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // Merge of two sorted id arrays; the result is written over the front of the first
+    private static long[] intersect(long[] left, long[] right) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                left[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(left, size);
+    }
+
+    private static final class IndexedPredicate {
+        // Exact match count, or -1 until a range predicate has been probed
+        private int size;
+        private final IntFunction<List<ListingCacheEntry>> scan;
+        private final Predicate<ListingCacheEntry> matcher;
+        private List<ListingCacheEntry> scanned;
+
+        private IndexedPredicate(int size, IntFunction<List<ListingCacheEntry>> scan, Predicate<ListingCacheEntry> matcher) {
+            this.size = size;
+            this.scan = scan;
+            this.matcher = matcher;
+        }
+
+        private List<ListingCacheEntry> entries() {
+            if (scanned == null) {
+                scanned = scan.apply(Integer.MAX_VALUE);
+            }
+            return scanned;
+        }
+    }
+}
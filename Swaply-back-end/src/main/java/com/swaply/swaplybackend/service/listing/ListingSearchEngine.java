@@ -0,0 +1,22 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+
+/**
+ * Keyword search over ACTIVE listings, best matches first. The implementation is picked with
+ * {@code listing.cache.search-engine}; see {@link com.swaply.swaplybackend.config.ListingSearchConfig}.
+ */
+public interface ListingSearchEngine {
+
+    /**
+     * @param page 1-based page number
+     */
+    PagedResponse<ListingDto> search(String keyword, int page, int size);
+
+    /**
+     * Facet counts over exactly the listings {@link #search} matches for a non-blank {@code keyword}.
+     */
+    ListingFacetIndex.Facets facets(String keyword);
+}
@@ -0,0 +1,73 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingSimilarityIndex;
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.ListingDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Serves "similar listings" from a {@link ListingSimilarityIndex} rebuilt in the background over
+ * the cached active listings, so a detail page view costs a binary search and a few cache lookups
+ * rather than a query. A rebuild is skipped while the cache has not changed since the last one.
+ */
+@Service
+public class ListingSimilarityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSimilarityService.class);
+
+    private final ListingCacheService cacheService;
+    private final ListingCacheProperties properties;
+    private final ForkJoinPool pool;
+
+    private volatile ListingSimilarityIndex index = ListingSimilarityIndex.EMPTY;
+    private volatile long builtAtVersion = -1;
+
+    public ListingSimilarityService(ListingCacheService cacheService, ListingCacheProperties properties) {
+        this(cacheService, properties, ForkJoinPool.commonPool());
+    }
+
+    ListingSimilarityService(ListingCacheService cacheService, ListingCacheProperties properties, ForkJoinPool pool) {
+        this.cacheService = cacheService;
+        this.properties = properties;
+        this.pool = pool;
+    }
+
+    @Scheduled(fixedDelayString = "${listing.cache.similar-refresh-interval-ms:300000}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long version = cacheService.version();
+        if (version == builtAtVersion) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<ListingSimilarityIndex.Item> items = new ArrayList<>();
+        for (ListingDto dto : cacheService.activeListings()) {
+            items.add(new ListingSimilarityIndex.Item(dto.getListingId(), dto.getCategory(), dto.getPrice(), dto.getTitle()));
+        }
+        index = ListingSimilarityIndex.build(items, properties.getSimilarNeighbours(), pool);
+        builtAtVersion = version;
+        log.info("Similar listings rebuilt for {} listings in {} ms", items.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Up to {@code limit} listings similar to {@code listingId}, best first. Neighbours sold or
+     * removed since the last rebuild are skipped; a listing newer than it has none yet.
+     */
+    public List<ListingDto> similar(Long listingId, int limit) {
+        long[] neighbours = index.neighbours(listingId, limit);
+        List<ListingDto> listings = new ArrayList<>(neighbours.length);
+        for (long neighbour : neighbours) {
+            cacheService.findById(neighbour).ifPresent(listings::add);
+        }
+        return listings;
+    }
+}
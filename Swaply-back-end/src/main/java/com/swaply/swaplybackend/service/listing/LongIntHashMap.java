@@ -0,0 +1,123 @@
+package com.swaply.swaplybackend.service.listing;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int} values, with linear
+ * probing and backward-shift deletion so no tombstones build up. Keys and values live in two
+ * parallel primitive arrays, so lookups neither box nor allocate. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * The value mapped to {@code key}, or {@link #MISSING}.
+     */
+    int get(long key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            if (values[i] == MISSING) {
+                return MISSING;
+            }
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative: " + value);
+        }
+        int i = index(key);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        // Keep the load factor at or below one half so probe runs stay short
+        if (++size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+    }
+
+    void remove(long key) {
+        int i = index(key);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Moves later entries of the probe run into the hole so every remaining key stays reachable
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == MISSING) {
+                values[hole] = MISSING;
+                return;
+            }
+            int home = index(keys[i]);
+            // The entry at i must stay put if its home slot is cyclically within (hole, i]
+            boolean staysPut = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+            if (!staysPut) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int j = index(oldKeys[i]);
+                while (values[j] != MISSING) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    // Fibonacci hashing spreads sequential listing ids across the table
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
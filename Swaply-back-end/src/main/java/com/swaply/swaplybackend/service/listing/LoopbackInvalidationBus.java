@@ -0,0 +1,28 @@
+package com.swaply.swaplybackend.service.listing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM bus: publishing delivers the event to every subscriber on the publishing thread. The
+ * default for a single instance, where the only subscriber ignores its own events, and a way to
+ * run several caches as separate nodes inside one JVM.
+ */
+public class LoopbackInvalidationBus implements ListingInvalidationBus {
+
+    private final List<Consumer<Event>> subscribers = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    @Override
+    public synchronized void publish(String origin, Long listingId) {
+        // Numbering and delivery under one monitor, so every subscriber sees the same order
+        Event event = new Event(++sequence, origin, listingId);
+        subscribers.forEach(subscriber -> subscriber.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<Event> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
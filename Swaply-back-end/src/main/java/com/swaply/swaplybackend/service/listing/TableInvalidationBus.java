@@ -0,0 +1,104 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.entity.ListingInvalidation;
+import com.swaply.swaplybackend.repository.ListingInvalidationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bus over the shared database: publishing inserts a row into {@code tb_listing_invalidation},
+ * and every node polls for rows past the last id it delivered, so the auto-increment id is the
+ * global sequence. Ids are handed out at insert but rows become visible at commit, so a missing
+ * id may just be a slower transaction still in flight: delivery stops at the gap and only skips
+ * it once it has stayed open for {@code invalidation-gap-timeout-ms}, by which time the row was
+ * rolled back or its listing will be covered by the next scheduled refresh. A node starts after
+ * the newest row that existed when the bus was created, which is before {@link ListingCacheService}
+ * starts its startup rebuild: older rows were published after their listing write committed, so
+ * the rebuild already sees those changes, and anything published while it runs is still delivered.
+ */
+public class TableInvalidationBus implements ListingInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(TableInvalidationBus.class);
+
+    private final ListingInvalidationRepository repository;
+    private final ListingCacheProperties properties;
+    private final LongSupplier clock;
+    private final List<Consumer<Event>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this bus's monitor; null until seeded
+    private Long lastDelivered;
+    private long gapSeenAt = -1;
+
+    public TableInvalidationBus(ListingInvalidationRepository repository, ListingCacheProperties properties) {
+        this(repository, properties, System::currentTimeMillis);
+    }
+
+    TableInvalidationBus(ListingInvalidationRepository repository, ListingCacheProperties properties, LongSupplier clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    // Runs from afterCommit, where a joined transaction would never commit, so it always gets its own
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publish(String origin, Long listingId) {
+        repository.save(new ListingInvalidation(listingId, origin));
+    }
+
+    @Override
+    public void subscribe(Consumer<Event> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @PostConstruct
+    public synchronized void seed() {
+        if (lastDelivered == null) {
+            lastDelivered = repository.findTopByOrderByInvalidationIdDesc().map(ListingInvalidation::getInvalidationId).orElse(0L);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${listing.cache.invalidation-poll-interval-ms:1000}")
+    public synchronized void poll() {
+        seed();
+        List<ListingInvalidation> rows = repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(lastDelivered);
+        for (ListingInvalidation row : rows) {
+            if (row.getInvalidationId() != lastDelivered + 1) {
+                long now = clock.getAsLong();
+                if (gapSeenAt < 0) {
+                    gapSeenAt = now;
+                }
+                if (now - gapSeenAt < properties.getInvalidationGapTimeoutMs()) {
+                    return;
+                }
+                log.warn("Skipping listing invalidations {}..{} that never became visible", lastDelivered + 1,
+                        row.getInvalidationId() - 1);
+            }
+            gapSeenAt = -1;
+            lastDelivered = row.getInvalidationId();
+            Event event = new Event(row.getInvalidationId(), row.getOrigin(), row.getListingId());
+            subscribers.forEach(subscriber -> subscriber.accept(event));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${listing.cache.invalidation-retention-ms:3600000}")
+    public void prune() {
+        long removed = repository.deleteByCreatedAtBefore(
+                LocalDateTime.now().minus(Duration.ofMillis(properties.getInvalidationRetentionMs())));
+        if (removed > 0) {
+            log.debug("Pruned {} listing invalidations", removed);
+        }
+    }
+}
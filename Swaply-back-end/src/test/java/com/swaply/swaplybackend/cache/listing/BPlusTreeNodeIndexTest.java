@@ -0,0 +1,71 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BPlusTreeNodeIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private BPlusTreeNodeIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new BPlusTreeNodeIndex(4);
+    }
+
+    @Test
+    void fetchLatest_returnsNewestFirst_acrossLeafSplits() {
+        List<ListingCacheEntry> entries = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            entries.add(entry(i, BigDecimal.valueOf(i), i));
+        }
+        index.rebuild(entries);
+
+        List<ListingCacheEntry> latest = index.fetchLatest(5);
+
+        assertThat(latest).extracting(ListingCacheEntry::getListingId)
+                .containsExactly(50L, 49L, 48L, 47L, 46L);
+    }
+
+    @Test
+    void fetchByPriceRange_isInclusive_andKeepsDuplicatePrices() {
+        for (long i = 1; i <= 30; i++) {
+            index.insert(entry(i, BigDecimal.valueOf(i % 10), i));
+        }
+
+        List<ListingCacheEntry> result = index.fetchByPriceRange(new BigDecimal("3"), new BigDecimal("4"), 100);
+
+        assertThat(result).hasSize(6);
+        assertThat(result).allSatisfy(e -> assertThat(e.getPrice()).isBetween(new BigDecimal("3"), new BigDecimal("4")));
+    }
+
+    @Test
+    void remove_dropsEntryFromEveryTree() {
+        for (long i = 1; i <= 20; i++) {
+            index.insert(entry(i, BigDecimal.TEN, i));
+        }
+
+        index.remove(20L);
+
+        assertThat(index.fetchLatest(1)).extracting(ListingCacheEntry::getListingId).containsExactly(19L);
+        assertThat(index.fetchPopular(1)).extracting(ListingCacheEntry::getListingId).containsExactly(19L);
+        assertThat(index.fetchByPriceRange(BigDecimal.TEN, BigDecimal.TEN, 100)).hasSize(19);
+    }
+
+    private ListingCacheEntry entry(long id, BigDecimal price, long minutes) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setPrice(price);
+        dto.setCreatedDate(BASE.plusMinutes(minutes));
+        return new ListingCacheEntry(dto, minutes);
+    }
+}
@@ -0,0 +1,136 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BPlusTreeTest {
+
+    @Test
+    void rebuild_bulkLoadsUnsortedPairs_inKeyOrder() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(8);
+        List<BPlusTree.Pair<Integer, Integer>> pairs = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            pairs.add(new BPlusTree.Pair<>(i, i));
+        }
+        Collections.shuffle(pairs, new Random(7));
+
+        tree.rebuild(pairs);
+
+        assertThat(tree.rangeSearch(0, 999, 2_000)).hasSize(1_000).isSorted();
+        assertThat(tree.rangeSearch(250, 259, 100)).containsExactly(250, 251, 252, 253, 254, 255, 256, 257, 258, 259);
+        assertThat(tree.scanDescending(3)).containsExactly(999, 998, 997);
+    }
+
+    @Test
+    void rebuild_groupsDuplicateKeys_intoOneSlot() {
+        BPlusTree<Integer, String> tree = new BPlusTree<>(4);
+        tree.rebuild(List.of(
+                new BPlusTree.Pair<>(5, "a"),
+                new BPlusTree.Pair<>(1, "b"),
+                new BPlusTree.Pair<>(5, "c"),
+                new BPlusTree.Pair<>(3, "d")));
+
+        assertThat(tree.rangeSearch(5, 5, 10)).containsExactlyInAnyOrder("a", "c");
+        assertThat(tree.rangeSearch(0, 10, 10)).hasSize(4);
+    }
+
+    @Test
+    void insert_afterBulkLoad_keepsOrdering() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        List<BPlusTree.Pair<Integer, Integer>> pairs = new ArrayList<>();
+        for (int i = 0; i < 200; i += 2) {
+            pairs.add(new BPlusTree.Pair<>(i, i));
+        }
+        tree.rebuild(pairs);
+
+        for (int i = 1; i < 200; i += 2) {
+            tree.insert(i, i);
+        }
+
+        assertThat(tree.rangeSearch(0, 199, 500)).hasSize(200).isSorted();
+    }
+
+    @Test
+    void rebuild_withEmptyList_clearsTree() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        tree.insert(1, 1);
+
+        tree.rebuild(List.of());
+
+        assertThat(tree.scanDescending(10)).isEmpty();
+        assertThat(tree.rangeSearch(0, 10, 10)).isEmpty();
+    }
+
+    @Test
+    void remove_mergesLeaves_andCollapsesRoot() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(i, i);
+        }
+        int grownHeight = tree.height();
+
+        for (int i = 0; i < 499; i++) {
+            tree.remove(i, v -> true);
+        }
+
+        assertThat(grownHeight).isGreaterThan(1);
+        assertThat(tree.height()).isEqualTo(1);
+        assertThat(tree.scanDescending(10)).containsExactly(499);
+
+        tree.remove(499, v -> true);
+        assertThat(tree.height()).isZero();
+        assertThat(tree.scanDescending(10)).isEmpty();
+    }
+
+    @Test
+    void cursorScans_resumeStrictlyAfterKey_evenWhenKeyIsAbsent() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        for (int i = 0; i < 100; i += 2) {
+            tree.insert(i, i);
+        }
+
+        assertThat(tree.scanDescendingBefore(50, 3)).containsExactly(48, 46, 44);
+        assertThat(tree.scanDescendingBefore(51, 2)).containsExactly(50, 48);
+        assertThat(tree.scanDescendingBefore(0, 5)).isEmpty();
+        assertThat(tree.rangeSearchAfter(50, 60, 10)).containsExactly(52, 54, 56, 58, 60);
+        assertThat(tree.rangeSearchAfter(49, 52, 10)).containsExactly(50, 52);
+        assertThat(tree.rangeSearchAfter(98, 200, 10)).isEmpty();
+    }
+
+    @Test
+    void randomChurn_matchesReferenceMap() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(5);
+        TreeMap<Integer, Integer> reference = new TreeMap<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0 || !reference.containsKey(key)) {
+                if (!reference.containsKey(key)) {
+                    tree.insert(key, key);
+                    reference.put(key, key);
+                }
+            } else {
+                tree.remove(key, v -> true);
+                reference.remove(key);
+            }
+        }
+
+        assertThat(tree.rangeSearch(0, 2_000, 5_000)).containsExactlyElementsOf(reference.values());
+        assertThat(tree.scanDescending(20)).containsExactlyElementsOf(
+                reference.descendingMap().values().stream().limit(20).toList());
+        for (Map.Entry<Integer, Integer> entry : reference.subMap(500, true, 520, true).entrySet()) {
+            assertThat(tree.rangeSearch(entry.getKey(), entry.getKey(), 1)).containsExactly(entry.getValue());
+        }
+        // Height stays logarithmic: a 5-way tree over <2k keys never needs more than 7 levels
+        assertThat(tree.height()).isLessThanOrEqualTo(7);
+    }
+}
@@ -0,0 +1,113 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ListingFacetIndexTest {
+
+    @Test
+    void bucketOf_usesInclusiveLowerBounds() {
+        assertThat(ListingFacetIndex.bucketOf(new BigDecimal("0"))).isZero();
+        assertThat(ListingFacetIndex.bucketOf(new BigDecimal("24.99"))).isZero();
+        assertThat(ListingFacetIndex.bucketOf(new BigDecimal("25.00"))).isEqualTo(1);
+        assertThat(ListingFacetIndex.bucketOf(new BigDecimal("999.999"))).isEqualTo(5);
+        assertThat(ListingFacetIndex.bucketOf(new BigDecimal("1000"))).isEqualTo(6);
+        assertThat(ListingFacetIndex.bucketMax(ListingFacetIndex.bucketCount() - 1)).isNull();
+    }
+
+    @Test
+    void priceBucketSums_spellOutTheBucketBounds_andPinTheRepositoryFacetQuery() throws Exception {
+        String sums = ListingFacetIndex.priceBucketSums("l.price");
+        assertThat(sums).startsWith("SUM(CASE WHEN l.price < 25 THEN 1 ELSE 0 END), ")
+                .contains("SUM(CASE WHEN l.price >= 25 AND l.price < 50 THEN 1 ELSE 0 END)")
+                .endsWith("SUM(CASE WHEN l.price >= 1000 THEN 1 ELSE 0 END)");
+
+        // JPQL in an annotation cannot be computed, so this is what keeps its literals in step
+        String countFacets = ListingRepository.class.getMethod("countFacets", ListingStatus.class, String.class)
+                .getAnnotation(Query.class).value();
+        assertThat(countFacets).contains(sums);
+    }
+
+    @Test
+    void fromRows_addsUpGroupedCounts() {
+        Object[] books = {Category.BOOKS, ListingCondition.NEW, 1L, 2L, 0L, 0L, 0L, 0L, 0L};
+        Object[] moreBooks = {Category.BOOKS, ListingCondition.GOOD, 0L, 0L, 0L, 0L, 0L, 0L, 4L};
+
+        ListingFacetIndex.Facets facets = ListingFacetIndex.fromRows(List.of(books, moreBooks));
+
+        assertThat(facets.total()).isEqualTo(7);
+        assertThat(facets.categories()).containsEntry(Category.BOOKS, 7).containsEntry(Category.ELECTRONICS, 0);
+        assertThat(facets.conditions()).containsEntry(ListingCondition.NEW, 3).containsEntry(ListingCondition.GOOD, 4);
+        assertThat(facets.prices()).extracting(ListingFacetIndex.PriceBucket::listings).containsExactly(1, 2, 0, 0, 0, 0, 4);
+    }
+
+    @Test
+    void counts_matchBruteForce_forRandomResultSets_acrossReindexAndRemoval() {
+        Random random = new Random(5);
+        ListingFacetIndex index = new ListingFacetIndex();
+        Map<Long, Object[]> live = new HashMap<>();
+        for (int op = 0; op < 3_000; op++) {
+            long id = random.nextInt(1_500);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                live.remove(id);
+            } else {
+                Category category = Category.values()[random.nextInt(Category.values().length)];
+                ListingCondition condition = ListingCondition.values()[random.nextInt(ListingCondition.values().length)];
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(150_000), 2);
+                index.index(id, category, condition, price);
+                live.put(id, new Object[]{category, condition, price});
+            }
+        }
+
+        assertFacets(index.countAll(), live, live.keySet());
+        for (int round = 0; round < 50; round++) {
+            Set<Long> result = new HashSet<>();
+            for (int i = random.nextInt(400); i > 0; i--) {
+                result.add((long) random.nextInt(1_700));
+            }
+            assertFacets(index.count(result), live, result);
+        }
+        assertThat(index.count(List.of(-1L, (long) Integer.MAX_VALUE + 5)).total()).isZero();
+    }
+
+    private void assertFacets(ListingFacetIndex.Facets facets, Map<Long, Object[]> live, Set<Long> result) {
+        Map<Category, Integer> categories = new HashMap<>();
+        Map<ListingCondition, Integer> conditions = new HashMap<>();
+        int[] buckets = new int[ListingFacetIndex.bucketCount()];
+        int total = 0;
+        for (Long id : result) {
+            Object[] values = live.get(id);
+            if (values != null) {
+                total++;
+                categories.merge((Category) values[0], 1, Integer::sum);
+                conditions.merge((ListingCondition) values[1], 1, Integer::sum);
+                buckets[ListingFacetIndex.bucketOf((BigDecimal) values[2])]++;
+            }
+        }
+        assertThat(facets.total()).isEqualTo(total);
+        for (Category category : Category.values()) {
+            assertThat(facets.categories().get(category)).isEqualTo(categories.getOrDefault(category, 0));
+        }
+        for (ListingCondition condition : ListingCondition.values()) {
+            assertThat(facets.conditions().get(condition)).isEqualTo(conditions.getOrDefault(condition, 0));
+        }
+        assertThat(facets.prices()).extracting(ListingFacetIndex.PriceBucket::listings)
+                .containsExactly(Arrays.stream(buckets).boxed().toArray(Integer[]::new));
+    }
+}
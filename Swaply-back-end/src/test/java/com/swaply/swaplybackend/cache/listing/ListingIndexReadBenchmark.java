@@ -0,0 +1,94 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Read throughput of the listing indexes while a writer keeps replacing entries.
+ * Not picked up by the default surefire includes; run it explicitly:
+ * {@code mvn test -Dtest=ListingIndexReadBenchmark}
+ */
+class ListingIndexReadBenchmark {
+
+    private static final int ENTRIES = 100_000;
+    private static final long MEASURE_MS = 1_500;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void readThroughputScalesWithReaders_underConcurrentWrites() throws Exception {
+        run("skip-list", BPlusTreeIndex::new);
+        run("bplus-tree", () -> new BPlusTreeNodeIndex(32));
+    }
+
+    private void run(String name, Supplier<ListingIndex> factory) throws Exception {
+        ListingIndex index = factory.get();
+        List<ListingCacheEntry> entries = new ArrayList<>(ENTRIES);
+        for (long id = 0; id < ENTRIES; id++) {
+            entries.add(entry(id));
+        }
+        index.rebuild(entries);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int readers = 1; readers <= cores; readers *= 2) {
+            long opsPerSecond = measure(index, readers);
+            System.out.printf("%-10s readers=%-3d reads/s=%,d%n", name, readers, opsPerSecond);
+            assertThat(opsPerSecond).isPositive();
+        }
+    }
+
+    private long measure(ListingIndex index, int readers) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(readers + 1);
+
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                long id = random.nextLong(ENTRIES);
+                index.remove(id);
+                index.insert(entry(id));
+            }
+            done.countDown();
+        });
+        writer.start();
+
+        for (int r = 0; r < readers; r++) {
+            Thread reader = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    index.fetchLatest(20);
+                    long low = random.nextLong(1_000);
+                    index.fetchByPriceRange(BigDecimal.valueOf(low), BigDecimal.valueOf(low + 10), 50);
+                    reads.add(2);
+                }
+                done.countDown();
+            });
+            reader.start();
+        }
+
+        Thread.sleep(MEASURE_MS);
+        running.set(false);
+        done.await();
+        return reads.sum() * 1_000 / MEASURE_MS;
+    }
+
+    private ListingCacheEntry entry(long id) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setPrice(BigDecimal.valueOf(id % 1_000));
+        dto.setCreatedDate(BASE.plusSeconds(id));
+        return new ListingCacheEntry(dto, id);
+    }
+}
@@ -0,0 +1,58 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ListingSearchIndexTest {
+
+    @Test
+    void tokenize_lowerCasesAndSplitsOnPunctuation() {
+        assertThat(ListingSearchIndex.tokenize("iPhone-13 Pro, 128GB!")).containsExactly("iphone", "13", "pro", "128gb");
+        assertThat(ListingSearchIndex.tokenize("  ")).isEmpty();
+        assertThat(ListingSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void search_requiresEveryToken_rankingTitleAndExactMatchesFirst() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        index.index(1L, "Vintage camera", "Film camera with leather strap");
+        index.index(2L, "Leather jacket", "Barely worn, fits like a camera bag");
+        index.index(3L, "Camera lens", "Vintage 50mm prime");
+        index.index(4L, "Cameras bundle", "Two vintage bodies");
+
+        assertThat(index.search("vintage camera", 0, 10).listingIds()).containsExactly(1L, 3L, 4L);
+        assertThat(index.search("leather", 0, 10).listingIds()).containsExactly(2L, 1L);
+        assertThat(index.search("cam", 0, 10).total()).isEqualTo(4);
+        assertThat(index.search("camera", 0, 10).listingIds()).startsWith(1L, 3L).contains(4L, 2L);
+        assertThat(index.search("c", 0, 10).total()).isZero();
+        assertThat(index.search("vintage tripod", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void search_pagesThroughTheRankedMatches_andForgetsRemovedListings() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (long id = 1; id <= 25; id++) {
+            index.index(id, "Board game " + id, id % 2 == 0 ? "board" : "");
+        }
+
+        List<Long> paged = new ArrayList<>();
+        for (int offset = 0; offset < 25; offset += 10) {
+            ListingSearchIndex.Result page = index.search("board", offset, 10);
+            assertThat(page.total()).isEqualTo(25);
+            paged.addAll(page.listingIds());
+        }
+        assertThat(paged).doesNotHaveDuplicates().hasSize(25);
+        // Even ids also mention the word in their description, newest id first among equals
+        assertThat(paged.subList(0, 3)).containsExactly(24L, 22L, 20L);
+
+        index.index(24L, "Puzzle", "");
+        index.remove(22L);
+        assertThat(index.search("board", 0, 2).listingIds()).containsExactly(20L, 18L);
+        assertThat(index.search("puzzle", 0, 10).listingIds()).containsExactly(24L);
+        assertThat(index.size()).isEqualTo(24);
+    }
+}
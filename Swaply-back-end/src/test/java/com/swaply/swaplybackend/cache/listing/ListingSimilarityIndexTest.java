@@ -0,0 +1,75 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ListingSimilarityIndexTest {
+
+    @Test
+    void neighbours_rankTitleOverlapAndClosePrices_withinTheCategory() {
+        List<ListingSimilarityIndex.Item> items = List.of(
+                item(1, Category.ELECTRONICS, "120", "Canon EOS 250D camera body"),
+                item(2, Category.ELECTRONICS, "110", "Canon EOS 250D camera with kit lens"),
+                item(3, Category.ELECTRONICS, "130", "Nikon camera body"),
+                item(4, Category.ELECTRONICS, "900", "Gaming laptop"),
+                item(5, Category.BOOKS, "120", "Canon EOS 250D camera manual"),
+                item(6, Category.ELECTRONICS, "125", "Phone charger"));
+
+        ListingSimilarityIndex index = ListingSimilarityIndex.build(items, 3, ForkJoinPool.commonPool());
+
+        assertThat(index.neighbours(1, 3)).containsExactly(2L, 3L, 6L);
+        assertThat(index.neighbours(1, 1)).containsExactly(2L);
+        assertThat(index.neighbours(5, 3)).isEmpty();
+        assertThat(index.neighbours(42, 3)).isEmpty();
+        assertThat(index.score(1, 0)).isGreaterThan(index.score(1, 1));
+    }
+
+    @Test
+    void build_isDeterministic_regardlessOfParallelism() {
+        Random random = new Random(3);
+        String[] words = {"vintage", "camera", "lens", "bike", "helmet", "desk", "lamp", "guitar", "amp", "tent"};
+        List<ListingSimilarityIndex.Item> items = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 3; w++) {
+                title.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            items.add(item(id, Category.values()[random.nextInt(3)], String.valueOf(1 + random.nextInt(500)), title.toString()));
+        }
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(4);
+        try {
+            ListingSimilarityIndex sequential = ListingSimilarityIndex.build(items, 8, single);
+            ListingSimilarityIndex parallel = ListingSimilarityIndex.build(items, 8, wide);
+            for (long id = 1; id <= 2_000; id++) {
+                assertThat(parallel.neighbours(id, 8)).containsExactly(sequential.neighbours(id, 8));
+                assertThat(sequential.neighbours(id, 8)).hasSize(8).doesNotContain(id);
+            }
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void jaccard_estimateTracksWordOverlap() {
+        assertThat(ListingSimilarityIndex.jaccard(ListingSimilarityIndex.signature("red road bike"),
+                ListingSimilarityIndex.signature("Bike, road, red!"))).isEqualTo(1.0);
+        assertThat(ListingSimilarityIndex.jaccard(ListingSimilarityIndex.signature("red road bike"),
+                ListingSimilarityIndex.signature("oak dining table"))).isLessThan(0.15);
+        assertThat(ListingSimilarityIndex.signature("  ")).isNull();
+    }
+
+    private ListingSimilarityIndex.Item item(long id, Category category, String price, String title) {
+        return new ListingSimilarityIndex.Item(id, category, new BigDecimal(price), title);
+    }
+}
@@ -0,0 +1,111 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.enums.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ListingSuggestIndexTest {
+
+    @Test
+    void suggest_completesPrefixes_toleratesTypos_andRanksByListingCount() {
+        ListingSuggestIndex index = new ListingSuggestIndex();
+        index.index(1L, "Vintage camera", Category.ELECTRONICS);
+        index.index(2L, "Camera lens", Category.ELECTRONICS);
+        index.index(3L, "Camel leather bag", Category.CLOTHING);
+        index.index(4L, "Board game", Category.TOYS_GAMES);
+
+        // "game" is one substitution away, so it trails the exact completions
+        assertThat(index.suggest("cam", 5)).extracting(ListingSuggestIndex.Suggestion::text).containsExactly("camera", "camel", "game");
+        assertThat(index.suggest("camrea", 5)).extracting(ListingSuggestIndex.Suggestion::text).containsExactly("camera", "camel");
+        assertThat(index.suggest("Vintgae", 5)).extracting(ListingSuggestIndex.Suggestion::text).containsExactly("vintage");
+        assertThat(index.suggest("elec", 5)).containsExactly(new ListingSuggestIndex.Suggestion("Electronics", Category.ELECTRONICS, 2));
+        assertThat(index.suggest("toys & ga", 5)).extracting(ListingSuggestIndex.Suggestion::category).contains(Category.TOYS_GAMES);
+        assertThat(index.suggest("used lea", 5)).extracting(ListingSuggestIndex.Suggestion::text).containsExactly("leather", "lens");
+        // One or two characters must match exactly
+        assertThat(index.suggest("xa", 5)).isEmpty();
+
+        index.remove(1L);
+        index.remove(2L);
+        assertThat(index.suggest("cam", 5)).extracting(ListingSuggestIndex.Suggestion::text).containsExactly("camel", "game");
+        assertThat(index.suggest("elec", 5)).isEmpty();
+    }
+
+    @Test
+    void suggest_matchesBruteForcePrefixEditDistance_underChurn() {
+        Random random = new Random(5);
+        ListingSuggestIndex index = new ListingSuggestIndex();
+        Map<Long, String> titles = new HashMap<>();
+        for (int round = 0; round < 600; round++) {
+            long id = random.nextInt(150);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                titles.remove(id);
+            } else {
+                String title = word(random) + " " + word(random);
+                index.index(id, title, null);
+                titles.put(id, title);
+            }
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        titles.values().forEach(title -> ListingSearchIndex.tokenize(title).stream().distinct()
+                .forEach(word -> counts.merge(word, 1, Integer::sum)));
+
+        for (int round = 0; round < 300; round++) {
+            String word = word(random);
+            String query = word.substring(0, 1 + random.nextInt(word.length()));
+            int limit = 1 + random.nextInt(6);
+            int maxDistance = ListingSuggestIndex.maxDistance(query.length());
+            List<Map.Entry<String, Integer>> expected = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                int distance = prefixDistance(entry.getKey(), query);
+                if (distance <= maxDistance) {
+                    expected.add(Map.entry(entry.getKey(), distance));
+                }
+            }
+            expected.sort(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue)
+                    .thenComparing(entry -> -counts.get(entry.getKey()))
+                    .thenComparing(Map.Entry::getKey));
+
+            assertThat(index.suggest(query, limit)).as(query).extracting(ListingSuggestIndex.Suggestion::text)
+                    .containsExactlyElementsOf(expected.stream().limit(limit).map(Map.Entry::getKey).toList());
+        }
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append("abcde".charAt(random.nextInt(5)));
+        }
+        return word.toString();
+    }
+
+    // Smallest edit distance between the query and any prefix of the word
+    private static int prefixDistance(String word, String query) {
+        int best = Integer.MAX_VALUE;
+        for (int end = 0; end <= word.length(); end++) {
+            best = Math.min(best, levenshtein(word.substring(0, end), query));
+        }
+        return best;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
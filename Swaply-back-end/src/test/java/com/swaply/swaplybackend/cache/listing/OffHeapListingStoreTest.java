@@ -0,0 +1,76 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OffHeapListingStoreTest {
+
+    @Test
+    void write_thenRead_roundTripsEveryField_includingNulls() {
+        OffHeapListingStore store = new OffHeapListingStore();
+        ListingDto full = new ListingDto(7L, "Vélo de route", "Carbon frame, barely used", new BigDecimal("1249.99"),
+                Category.SPORTS, ListingCondition.LIKE_NEW, "https://example.com/bike.jpg", ListingStatus.ACTIVE,
+                3L, "nick", "https://example.com/nick.png",
+                LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_456_789), LocalDateTime.of(2025, 3, 2, 10, 0));
+        ListingDto sparse = new ListingDto();
+        sparse.setListingId(8L);
+
+        ListingDto fullCopy = store.read(store.write(full));
+        ListingDto sparseCopy = store.read(store.write(sparse));
+
+        assertThat(fullCopy).usingRecursiveComparison().isEqualTo(full);
+        assertThat(fullCopy).isNotSameAs(full);
+        assertThat(sparseCopy).usingRecursiveComparison().isEqualTo(sparse);
+    }
+
+    @Test
+    void write_spillsIntoNewSlabs_andKeepsEarlierHandlesValid() {
+        OffHeapListingStore store = new OffHeapListingStore();
+        String description = "x".repeat(900);
+        List<Integer> handles = new ArrayList<>();
+        for (long id = 0; id < 12_000; id++) {
+            ListingDto dto = new ListingDto();
+            dto.setListingId(id);
+            dto.setDescription(description);
+            dto.setPrice(BigDecimal.valueOf(id, 2));
+            handles.add(store.write(dto));
+        }
+
+        assertThat(store.allocatedBytes()).isGreaterThan(OffHeapListingStore.SLAB_BYTES);
+        for (int i = 0; i < handles.size(); i += 997) {
+            ListingDto read = store.read(handles.get(i));
+            assertThat(read.getListingId()).isEqualTo(i);
+            assertThat(read.getPrice()).isEqualTo(BigDecimal.valueOf(i, 2));
+            assertThat(read.getDescription()).hasSize(900);
+        }
+    }
+
+    @Test
+    void release_countsDeadBytes_withoutInvalidatingLiveRecords() {
+        OffHeapListingStore store = new OffHeapListingStore();
+        ListingDto dto = new ListingDto();
+        dto.setListingId(1L);
+        dto.setTitle("Lamp");
+        int first = store.write(dto);
+        int json = store.writeBytes("{\"listingId\":1}".getBytes());
+        int second = store.write(dto);
+
+        store.release(first);
+        store.release(json);
+
+        assertThat(store.deadBytes()).isPositive().isLessThan(store.usedBytes());
+        store.release(second);
+        assertThat(store.deadBytes()).isEqualTo(store.usedBytes());
+        assertThat(store.read(second).getTitle()).isEqualTo("Lamp");
+    }
+}
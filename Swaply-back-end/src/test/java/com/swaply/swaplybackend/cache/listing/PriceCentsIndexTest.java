@@ -0,0 +1,69 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PriceCentsIndexTest {
+
+    @Test
+    void cents_roundTowardsTheInsideOfARange_andClampOverflow() {
+        assertThat(PriceCentsIndex.ceilCents(new BigDecimal("10.001"))).isEqualTo(1_001);
+        assertThat(PriceCentsIndex.floorCents(new BigDecimal("10.009"))).isEqualTo(1_000);
+        assertThat(PriceCentsIndex.ceilCents(new BigDecimal("25"))).isEqualTo(2_500);
+        assertThat(PriceCentsIndex.floorCents(BigDecimal.valueOf(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void randomChurn_matchesReferenceMap_acrossBlockSplitsAndMerges() {
+        PriceCentsIndex index = new PriceCentsIndex();
+        TreeMap<List<Long>, ListingCacheEntry> reference = new TreeMap<>((a, b) -> {
+            int cmp = Long.compare(a.get(0), b.get(0));
+            return cmp != 0 ? cmp : Long.compare(a.get(1), b.get(1));
+        });
+        Random random = new Random(3);
+        List<ListingCacheEntry> initial = new ArrayList<>();
+        for (long id = 0; id < 1_000; id++) {
+            ListingCacheEntry entry = entry(id, random.nextInt(300));
+            initial.add(entry);
+            reference.put(List.of(entry.getPriceCents(), id), entry);
+        }
+        index.rebuild(initial);
+
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(3_000);
+            reference.values().stream().filter(e -> e.getListingId() == id).findFirst().ifPresent(existing -> {
+                index.remove(existing.getPriceCents(), id);
+                reference.remove(List.of(existing.getPriceCents(), id));
+            });
+            if (random.nextBoolean()) {
+                ListingCacheEntry entry = entry(id, random.nextInt(300));
+                index.insert(entry.getPriceCents(), id, entry);
+                reference.put(List.of(entry.getPriceCents(), id), entry);
+            }
+        }
+
+        assertThat(index.range(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE)).containsExactlyElementsOf(reference.values());
+        assertThat(index.range(5_000, 7_500, Integer.MAX_VALUE)).containsExactlyElementsOf(
+                reference.subMap(List.of(5_000L, Long.MIN_VALUE), true, List.of(7_500L, Long.MAX_VALUE), true).values());
+        ListingCacheEntry pivot = reference.values().stream().skip(reference.size() / 2).findFirst().orElseThrow();
+        assertThat(index.rangeAfter(pivot.getPriceCents(), pivot.getListingId(), Long.MAX_VALUE, 5)).containsExactlyElementsOf(
+                reference.tailMap(List.of(pivot.getPriceCents(), pivot.getListingId()), false).values().stream().limit(5).toList());
+    }
+
+    private ListingCacheEntry entry(long id, int dollars) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setPrice(BigDecimal.valueOf(dollars * 100L + id % 100, 2));
+        dto.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+        return new ListingCacheEntry(dto, 0);
+    }
+}
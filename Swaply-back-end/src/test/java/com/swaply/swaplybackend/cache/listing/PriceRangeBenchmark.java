@@ -0,0 +1,88 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Single-threaded price range queries over 100k entries: the previous BigDecimal-keyed skip list
+ * against {@link PriceCentsIndex}. Not picked up by the default surefire includes; run it
+ * explicitly: {@code mvn test -Dtest=PriceRangeBenchmark}
+ */
+class PriceRangeBenchmark {
+
+    private static final int ENTRIES = 100_000;
+    private static final int QUERIES = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void rangeQueries_overBigDecimalSkipList_vsPrimitiveCents() {
+        List<ListingCacheEntry> entries = new ArrayList<>(ENTRIES);
+        Random random = new Random(1);
+        for (long id = 0; id < ENTRIES; id++) {
+            entries.add(entry(id, BigDecimal.valueOf(random.nextInt(100_000), 2)));
+        }
+        ConcurrentSkipListMap<IndexKey<BigDecimal>, ListingCacheEntry> skipList = new ConcurrentSkipListMap<>();
+        entries.forEach(e -> skipList.put(new IndexKey<>(e.getPrice(), e.getListingId()), e));
+        PriceCentsIndex cents = new PriceCentsIndex();
+        cents.rebuild(entries);
+
+        BigDecimal[] lows = new BigDecimal[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            lows[i] = BigDecimal.valueOf(random.nextInt(99_000), 2);
+        }
+        BigDecimal width = new BigDecimal("5.00");
+
+        double skipListNs = measure("skip-list", i -> {
+            BigDecimal low = lows[i];
+            int n = 0;
+            for (ListingCacheEntry ignored : skipList.subMap(IndexKey.lowest(low), true,
+                    IndexKey.highest(low.add(width)), true).values()) {
+                if (++n >= 50) {
+                    break;
+                }
+            }
+            return n;
+        });
+        double centsNs = measure("cents", i -> cents.range(PriceCentsIndex.ceilCents(lows[i]),
+                PriceCentsIndex.floorCents(lows[i].add(width)), 50).size());
+
+        System.out.printf("price range speedup: %.2fx%n", skipListNs / centsNs);
+        assertThat(centsNs).isPositive();
+    }
+
+    private double measure(String name, ToIntFunction<Integer> query) {
+        long sink = 0;
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += query.applyAsInt(i);
+            }
+            double nsPerQuery = (System.nanoTime() - start) / (double) QUERIES;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, nsPerQuery);
+            }
+        }
+        System.out.printf("%-10s ns/query=%,.0f (matched %d)%n", name, best, sink);
+        return best;
+    }
+
+    private ListingCacheEntry entry(long id, BigDecimal price) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setPrice(price);
+        dto.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(id));
+        return new ListingCacheEntry(dto, id);
+    }
+}
@@ -0,0 +1,112 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedListingIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void everyRead_matchesASingleIndex_acrossWritesAndRebuilds() {
+        Random random = new Random(17);
+        List<ListingIndex> parts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            parts.add(i % 2 == 0 ? new BPlusTreeIndex() : new BPlusTreeNodeIndex(4));
+        }
+        ShardedListingIndex sharded = new ShardedListingIndex(parts, pool);
+        BPlusTreeIndex single = new BPlusTreeIndex();
+
+        List<ListingCacheEntry> initial = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            initial.add(entry(random, id));
+        }
+        sharded.rebuild(initial);
+        single.rebuild(initial);
+        assertSameReads(sharded, single, random);
+
+        for (int op = 0; op < 600; op++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextInt(5) == 0) {
+                sharded.remove(id);
+                single.remove(id);
+            } else {
+                ListingCacheEntry entry = entry(random, id);
+                sharded.replace(entry);
+                single.replace(entry);
+            }
+        }
+        assertSameReads(sharded, single, random);
+    }
+
+    private void assertSameReads(ShardedListingIndex sharded, BPlusTreeIndex single, Random random) {
+        assertThat(sharded.size()).isEqualTo(single.size());
+        for (int round = 0; round < 40; round++) {
+            int limit = 1 + random.nextInt(60);
+            LocalDateTime created = BASE.plusMinutes(random.nextInt(200));
+            long afterId = random.nextInt(400);
+            BigDecimal min = BigDecimal.valueOf(random.nextInt(50));
+            BigDecimal max = min.add(BigDecimal.valueOf(random.nextInt(50)));
+            Category category = Category.values()[random.nextInt(Category.values().length)];
+            ListingCondition condition = ListingCondition.values()[random.nextInt(ListingCondition.values().length)];
+            long seller = random.nextInt(6);
+            long popularity = random.nextInt(20);
+
+            assertSame(sharded, single, index -> index.fetchLatest(limit));
+            assertSame(sharded, single, index -> index.fetchLatestAfter(created, afterId, limit));
+            assertSame(sharded, single, index -> index.fetchPopular(limit));
+            assertSame(sharded, single, index -> index.fetchPopularAfter(popularity, afterId, limit));
+            assertSame(sharded, single, index -> index.fetchByPriceRange(min, max, limit));
+            assertSame(sharded, single, index -> index.fetchByPriceRangeAfter(min, max, min.add(BigDecimal.ONE), afterId, limit));
+            assertSame(sharded, single, index -> index.fetchLatestByCategory(category, limit));
+            assertSame(sharded, single, index -> index.fetchByCategoryAndPriceRange(category, min, max, limit));
+            assertSame(sharded, single, index -> index.fetchLatestByCondition(condition, limit));
+            assertSame(sharded, single, index -> index.fetchByConditionAndPriceRange(condition, min, max, limit));
+            assertSame(sharded, single, index -> index.fetchLatestBySeller(seller, limit));
+            assertSame(sharded, single, index -> index.fetchLatestBySellerAfter(seller, created, afterId, limit));
+            assertSame(sharded, single, index -> index.fetchCreatedAfter(created, limit));
+            assertThat(sharded.countByCategory(category)).isEqualTo(single.countByCategory(category));
+            assertThat(sharded.countByCondition(condition)).isEqualTo(single.countByCondition(condition));
+            assertThat(sharded.countBySeller(seller)).isEqualTo(single.countBySeller(seller));
+        }
+    }
+
+    private void assertSame(ListingIndex sharded, ListingIndex single, Function<ListingIndex, List<ListingCacheEntry>> read) {
+        assertThat(read.apply(sharded)).extracting(ListingCacheEntry::getListingId)
+                .containsExactlyElementsOf(read.apply(single).stream().map(ListingCacheEntry::getListingId).toList());
+    }
+
+    // Narrow value ranges so that ties on every key are common
+    private ListingCacheEntry entry(Random random, long id) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setPrice(BigDecimal.valueOf(random.nextInt(100)));
+        dto.setCreatedDate(BASE.plusMinutes(random.nextInt(200)));
+        dto.setCategory(Category.values()[random.nextInt(Category.values().length)]);
+        dto.setCondition(ListingCondition.values()[random.nextInt(ListingCondition.values().length)]);
+        dto.setUserId((long) random.nextInt(6));
+        dto.setStatus(ListingStatus.ACTIVE);
+        return new ListingCacheEntry(dto, random.nextInt(20));
+    }
+}
@@ -0,0 +1,47 @@
+package com.swaply.swaplybackend.cache.listing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedListingSearchIndexTest {
+
+    @Test
+    void search_ranksExactlyLikeOneIndexOverTheWholeCatalogue() {
+        String[] words = {"vintage", "camera", "cam", "lens", "leather", "bag", "board", "game", "games", "lamp"};
+        Random random = new Random(9);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ShardedListingSearchIndex sharded = new ShardedListingSearchIndex(5, pool);
+            ListingSearchIndex single = new ListingSearchIndex();
+            for (int op = 0; op < 1_500; op++) {
+                long id = random.nextInt(800);
+                if (random.nextInt(6) == 0) {
+                    sharded.remove(id);
+                    single.remove(id);
+                } else {
+                    String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                    String description = words[random.nextInt(words.length)];
+                    sharded.index(id, title, description);
+                    single.index(id, title, description);
+                }
+            }
+
+            assertThat(sharded.size()).isEqualTo(single.size());
+            for (String query : new String[]{"camera", "vintage cam", "ga", "leather bag lamp", "tripod", "board games"}) {
+                for (int offset : new int[]{0, 7, 40}) {
+                    ListingSearchIndex.Result expected = single.search(query, offset, 15);
+                    ListingSearchIndex.Result actual = sharded.search(query, offset, 15);
+                    assertThat(actual.total()).as(query).isEqualTo(expected.total());
+                    assertThat(actual.listingIds()).as(query + " @" + offset).containsExactlyElementsOf(expected.listingIds());
+                }
+                assertThat(sharded.matchingIds(query)).containsExactlyInAnyOrderElementsOf(single.matchingIds(query));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
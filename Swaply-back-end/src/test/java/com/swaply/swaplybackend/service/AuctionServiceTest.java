@@ -12,6 +12,7 @@ import com.swaply.swaplybackend.repository.AuctionRepository;
 import com.swaply.swaplybackend.repository.BidRepository;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.repository.UserRepository;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +34,7 @@ class AuctionServiceTest {
     @Mock BidRepository bidRepository;
     @Mock ListingRepository listingRepository;
     @Mock UserRepository userRepository;
+    @Mock ListingPopularityTracker popularityTracker;
 
     @InjectMocks AuctionService auctionService;
 
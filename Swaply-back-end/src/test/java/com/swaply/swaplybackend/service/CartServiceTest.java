@@ -7,6 +7,7 @@ import com.swaply.swaplybackend.entity.User;
 import com.swaply.swaplybackend.enums.ListingStatus;
 import com.swaply.swaplybackend.repository.CartItemRepository;
 import com.swaply.swaplybackend.repository.ListingRepository;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +27,7 @@ class CartServiceTest {
 
     @Mock CartItemRepository cartItemRepository;
     @Mock ListingRepository listingRepository;
+    @Mock ListingPopularityTracker popularityTracker;
 
     @InjectMocks CartService cartService;
 
@@ -1,7 +1,9 @@
 package com.swaply.swaplybackend.service;
 
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
 import com.swaply.swaplybackend.dto.CreateListingDto;
 import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
 import com.swaply.swaplybackend.dto.UpdateListingDto;
 import com.swaply.swaplybackend.entity.Listing;
 import com.swaply.swaplybackend.entity.User;
@@ -9,9 +11,15 @@ import com.swaply.swaplybackend.enums.Category;
 import com.swaply.swaplybackend.enums.ListingCondition;
 import com.swaply.swaplybackend.enums.ListingStatus;
 import com.swaply.swaplybackend.exception.InvalidListingException;
+import com.swaply.swaplybackend.exception.ListingNotFoundException;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.repository.UserRepository;
 import com.swaply.swaplybackend.service.listing.ListingCacheService;
+import com.swaply.swaplybackend.service.listing.ListingDetailCache;
+import com.swaply.swaplybackend.service.listing.ListingFeedCache;
+import com.swaply.swaplybackend.service.listing.ListingPopularityTracker;
+import com.swaply.swaplybackend.service.listing.ListingSearchEngine;
+import com.swaply.swaplybackend.service.listing.ListingSimilarityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +28,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -31,6 +41,11 @@ class ListingServiceTest {
     @Mock ListingRepository listingRepository;
     @Mock UserRepository userRepository;
     @Mock ListingCacheService listingCacheService;
+    @Mock ListingPopularityTracker popularityTracker;
+    @Mock ListingFeedCache feedCache;
+    @Mock ListingDetailCache detailCache;
+    @Mock ListingSearchEngine searchEngine;
+    @Mock ListingSimilarityService similarityService;
 
     @InjectMocks ListingService listingService;
 
@@ -89,6 +104,37 @@ class ListingServiceTest {
                 .hasMessageContaining("User with ID 99");
     }
 
+    @Test
+    void getListingsByCategory_isServedFromCache_withoutQueryingRepository() {
+        ListingDto cached = new ListingDto();
+        cached.setListingId(3L);
+        when(listingCacheService.byCategory(Category.BOOKS, null, new BigDecimal("20"), 10)).thenReturn(List.of(cached));
+
+        List<ListingDto> result = listingService.getListingsByCategory(Category.BOOKS, null, new BigDecimal("20"), 10);
+
+        assertThat(result).containsExactly(cached);
+        verifyNoInteractions(listingRepository);
+    }
+
+    @Test
+    void recordChatOpened_rejectsListingsTheCacheDoesNotHold() {
+        when(listingCacheService.findById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> listingService.recordChatOpened(9L)).isInstanceOf(ListingNotFoundException.class);
+        verifyNoInteractions(popularityTracker);
+    }
+
+    @Test
+    void getListingFacets_countsWhatTheConfiguredEngineMatches() {
+        ListingFacetIndex.Facets matched = new ListingFacetIndex.Facets(1, Map.of(), Map.of(), List.of());
+        ListingFacetIndex.Facets all = new ListingFacetIndex.Facets(9, Map.of(), Map.of(), List.of());
+        when(searchEngine.facets("camera")).thenReturn(matched);
+        when(listingCacheService.facets(null)).thenReturn(all);
+
+        assertThat(listingService.getListingFacets("camera")).isSameAs(matched);
+        assertThat(listingService.getListingFacets(" ")).isSameAs(all);
+    }
+
     @Test
     void updateListing_rejectsUnauthorizedUser() {
         Listing existing = new Listing();
@@ -104,5 +150,14 @@ class ListingServiceTest {
                 .hasMessageContaining("authorized");
         verify(listingRepository, never()).save(any());
     }
-}
 
+    @Test
+    void searchListings_clampsPaging_andSkipsTheEngineForBlankKeywords() {
+        PagedResponse<ListingDto> page = new PagedResponse<>(List.of(), 1, 50, 0);
+        when(searchEngine.search("camera", 1, 50)).thenReturn(page);
+
+        assertThat(listingService.searchListings("camera", 0, 500)).isSameAs(page);
+        assertThat(listingService.searchListings("  ", 2, 10).getItems()).isEmpty();
+        verify(searchEngine, times(1)).search(anyString(), anyInt(), anyInt());
+    }
+}
@@ -13,6 +13,7 @@ import com.swaply.swaplybackend.repository.CartItemRepository;
 import com.swaply.swaplybackend.repository.ListingRepository;
 import com.swaply.swaplybackend.repository.OrderRepository;
 import com.swaply.swaplybackend.repository.UserRepository;
+import com.swaply.swaplybackend.service.listing.ListingCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +34,7 @@ class OrderServiceTest {
     @Mock UserRepository userRepository;
     @Mock ListingRepository listingRepository;
     @Mock CartItemRepository cartItemRepository;
+    @Mock ListingCacheService listingCacheService;
 
     @InjectMocks OrderService orderService;
 
@@ -133,6 +135,7 @@ class OrderServiceTest {
 
         assertThat(result.getStatus()).isEqualTo(OrderStatus.COMPLETED);
         verify(listingRepository).save(argThat(l -> l.getStatus() == ListingStatus.SOLD));
+        verify(listingCacheService).evict(listing.getListingId());
     }
 
     @Test
@@ -0,0 +1,107 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FulltextListingSearchEngineTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+
+    @InjectMocks FulltextListingSearchEngine engine;
+
+    @Test
+    void ensureIndex_createsTheFulltextIndexOnlyWhenMissing() {
+        when(jdbcTemplate.queryForObject(contains("information_schema.statistics"), eq(Integer.class),
+                eq(FulltextListingSearchEngine.INDEX_NAME))).thenReturn(0, 1);
+
+        engine.ensureIndex();
+        engine.ensureIndex();
+
+        verify(jdbcTemplate, times(1)).execute(
+                "ALTER TABLE tb_listing ADD FULLTEXT INDEX " + FulltextListingSearchEngine.INDEX_NAME + " (title, description)");
+    }
+
+    @Test
+    void ensureIndex_treatsAnIndexCreatedConcurrentlyAsSuccess() {
+        when(jdbcTemplate.queryForObject(contains("information_schema.statistics"), eq(Integer.class),
+                eq(FulltextListingSearchEngine.INDEX_NAME))).thenReturn(0);
+        doThrow(new BadSqlGrammarException("ensureIndex", FulltextListingSearchEngine.CREATE_INDEX_SQL,
+                new SQLException("Duplicate key name", "42000", 1061)))
+                .when(jdbcTemplate).execute(FulltextListingSearchEngine.CREATE_INDEX_SQL);
+
+        assertThatCode(() -> engine.ensureIndex()).doesNotThrowAnyException();
+
+        doThrow(new BadSqlGrammarException("ensureIndex", FulltextListingSearchEngine.CREATE_INDEX_SQL,
+                new SQLException("Table 'tb_listing' doesn't exist", "42S02", 1146)))
+                .when(jdbcTemplate).execute(FulltextListingSearchEngine.CREATE_INDEX_SQL);
+        assertThatThrownBy(() -> engine.ensureIndex()).isInstanceOf(BadSqlGrammarException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_ranksByRelevance_andCountsOnlyWhenThePageIsFull() {
+        List<ListingDto> full = List.of(new ListingDto(), new ListingDto());
+        when(jdbcTemplate.query(contains("ORDER BY relevance DESC"), any(RowMapper.class),
+                eq("camera"), eq("ACTIVE"), eq("camera"), eq(2), eq(2L))).thenReturn(full);
+        when(jdbcTemplate.query(contains("ORDER BY relevance DESC"), any(RowMapper.class),
+                eq("camera"), eq("ACTIVE"), eq("camera"), eq(2), eq(4L))).thenReturn(List.of(new ListingDto()));
+        when(jdbcTemplate.queryForObject(contains("SELECT COUNT(*) FROM tb_listing"), eq(Long.class),
+                eq("ACTIVE"), eq("camera"))).thenReturn(5L);
+
+        PagedResponse<ListingDto> second = engine.search(" camera ", 2, 2);
+        PagedResponse<ListingDto> last = engine.search("camera", 3, 2);
+
+        assertThat(second.getItems()).hasSize(2);
+        assertThat(second.getTotal()).isEqualTo(5);
+        assertThat(last.getItems()).hasSize(1);
+        assertThat(last.getTotal()).isEqualTo(5);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void facets_groupTheFulltextMatches_withTheSharedPriceBuckets() {
+        when(jdbcTemplate.query(contains(ListingFacetIndex.priceBucketSums("l.price")), any(RowMapper.class),
+                eq("ACTIVE"), eq("camera"))).thenReturn(List.<Object[]>of(
+                new Object[]{Category.ELECTRONICS, ListingCondition.GOOD, 0L, 0L, 0L, 3L, 0L, 0L, 0L}));
+
+        ListingFacetIndex.Facets facets = engine.facets(" camera ");
+
+        assertThat(facets.total()).isEqualTo(3);
+        assertThat(facets.categories()).containsEntry(Category.ELECTRONICS, 3);
+        verify(jdbcTemplate).query(contains("MATCH(l.title, l.description) AGAINST"), any(RowMapper.class), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_countsTheRealTotal_forAnEmptyPagePastTheEnd() {
+        when(jdbcTemplate.query(contains("ORDER BY relevance DESC"), any(RowMapper.class),
+                eq("camera"), eq("ACTIVE"), eq("camera"), eq(2), eq(18L))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("SELECT COUNT(*) FROM tb_listing"), eq(Long.class),
+                eq("ACTIVE"), eq("camera"))).thenReturn(5L);
+
+        PagedResponse<ListingDto> pastTheEnd = engine.search("camera", 10, 2);
+
+        assertThat(pastTheEnd.getItems()).isEmpty();
+        assertThat(pastTheEnd.getTotal()).isEqualTo(5);
+    }
+}
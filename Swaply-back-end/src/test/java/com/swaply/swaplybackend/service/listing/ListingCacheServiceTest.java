@@ -0,0 +1,697 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swaply.swaplybackend.cache.listing.ListingCacheEntry;
+import com.swaply.swaplybackend.cache.listing.ListingFacetIndex;
+import com.swaply.swaplybackend.cache.listing.ListingSuggestIndex;
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.CursorPage;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.dto.PagedResponse;
+import com.swaply.swaplybackend.entity.Listing;
+import com.swaply.swaplybackend.entity.User;
+import com.swaply.swaplybackend.enums.Category;
+import com.swaply.swaplybackend.enums.ListingCondition;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import com.swaply.swaplybackend.service.ListingMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingCacheServiceTest {
+
+    @Mock ListingRepository listingRepository;
+
+    private ListingCacheService cacheService;
+    private ListingPopularityTracker tracker;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private long now;
+    private User seller;
+
+    @BeforeEach
+    void setup() {
+        now = 0L;
+        tracker = new ListingPopularityTracker(60, () -> now);
+        cacheService = new ListingCacheService(listingRepository, new ListingCacheProperties(), tracker, objectMapper);
+        seller = new User();
+        seller.setUserId(1L);
+        seller.setUserName("nick");
+    }
+
+    @Test
+    void rebuildCache_keepsServingPreviousGeneration_untilSwap() {
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any()))
+                .thenReturn(dtos(listing(1L, 10)));
+        cacheService.rebuildCache("test");
+
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenAnswer(invocation -> {
+            // Mid-rebuild readers still see the old generation in full
+            assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(1L);
+            return dtos(listing(2L, 20), listing(1L, 10));
+        });
+        cacheService.rebuildCache("test");
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rebuildCache_replaysWritesMadeDuringBuild() {
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenAnswer(invocation -> {
+            cacheService.upsert(listing(3L, 30));
+            cacheService.evict(1L);
+            return dtos(listing(2L, 20), listing(1L, 10));
+        });
+
+        cacheService.rebuildCache("test");
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(3L, 2L);
+        assertThat(cacheService.findById(1L)).isEmpty();
+        assertThat(cacheService.findById(3L)).isPresent();
+    }
+
+    @Test
+    void refreshIncremental_appliesChangesSinceWatermark() {
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any()))
+                .thenReturn(dtos(listing(2L, 20), listing(1L, 10)));
+        cacheService.rebuildCache("test");
+
+        Listing repriced = listing(2L, 20);
+        repriced.setPrice(new BigDecimal("99"));
+        repriced.setUpdatedDate(LocalDateTime.now().plusSeconds(1));
+        Listing sold = listing(1L, 10);
+        sold.setStatus(ListingStatus.SOLD);
+        sold.setUpdatedDate(LocalDateTime.now().plusSeconds(2));
+        when(listingRepository.findChangedSince(any()))
+                .thenReturn(List.of(repriced, sold))
+                .thenReturn(List.of(repriced, sold));
+        List<Long> changed = new ArrayList<>();
+        cacheService.addListener(new ListingCacheListener() {
+            @Override
+            public void listingChanged(Long listingId) {
+                changed.add(listingId);
+            }
+
+            @Override
+            public void cacheRebuilt() {
+            }
+        });
+
+        cacheService.refreshIncremental();
+        cacheService.refreshIncremental();
+
+        assertThat(cacheService.findById(1L)).isEmpty();
+        assertThat(cacheService.findById(2L)).get().extracting(ListingDto::getPrice).isEqualTo(new BigDecimal("99"));
+        assertThat(cacheService.priceRange(BigDecimal.ZERO, new BigDecimal("1000"), 10)).hasSize(1);
+        verify(listingRepository, times(1)).findDtoPageByStatus(eq(ListingStatus.ACTIVE), any());
+        // The second run re-reads the overlap window behind the newest row but skips what it applied
+        verify(listingRepository).findChangedSince(sold.getUpdatedDate().minusSeconds(30));
+        assertThat(changed).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void refreshIncremental_picksUpRowsCommittedBehindTheWatermark() {
+        cacheService.rebuildCache("test");
+        Listing early = listing(1L, 10);
+        early.setUpdatedDate(LocalDateTime.now().plusSeconds(5));
+        // Stamped before `early` but its transaction committed after the first refresh ran
+        Listing late = listing(2L, 20);
+        late.setUpdatedDate(early.getUpdatedDate().minusSeconds(3));
+        when(listingRepository.findChangedSince(any()))
+                .thenReturn(List.of(early))
+                .thenReturn(List.of(late, early));
+
+        cacheService.refreshIncremental();
+        assertThat(cacheService.findById(2L)).isEmpty();
+        cacheService.refreshIncremental();
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void refreshIncremental_staysWithinPreloadLimit() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setPreloadLimit(2);
+        cacheService = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any()))
+                .thenReturn(dtos(listing(2L, 20)));
+        cacheService.rebuildCache("test");
+
+        Listing added = listing(3L, 30);
+        added.setUpdatedDate(LocalDateTime.now().plusSeconds(1));
+        Listing another = listing(4L, 40);
+        another.setUpdatedDate(LocalDateTime.now().plusSeconds(2));
+        when(listingRepository.findChangedSince(any())).thenReturn(List.of(added, another));
+
+        cacheService.refreshIncremental();
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(4L, 3L);
+        // With the oldest listing dropped, seller pages can no longer be answered from memory
+        cacheService.sellerPage(1L, ListingStatus.ACTIVE, null, 10);
+        verify(listingRepository).findDtoPageBySeller(eq(1L), eq(ListingStatus.ACTIVE), any(), any(), any());
+    }
+
+    @Test
+    void concurrentWritesAcrossShards_leaveEveryIndexConsistent() throws Exception {
+        for (ListingCacheProperties.PayloadStorage storage : ListingCacheProperties.PayloadStorage.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setShards(4);
+            properties.setPreloadLimit(10_000);
+            properties.setPayloadStorage(storage);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            service.rebuildCache("test");
+            int threads = 4;
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int offset = t;
+                    writers.add(pool.submit(() -> {
+                        for (long id = 1 + offset; id <= 2_000; id += threads) {
+                            service.upsert(listing(id, (int) id));
+                            if (id % 3 == 0) {
+                                service.evict(id);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            List<ListingDto> latest = service.latest(Integer.MAX_VALUE);
+            assertThat(latest).as(storage.name()).hasSize(2_000 - 2_000 / 3);
+            // Payloads read back intact, so no two shard writers interleaved inside one record
+            assertThat(latest).allSatisfy(dto -> {
+                assertThat(dto.getListingId() % 3).isNotZero();
+                assertThat(dto.getTitle()).isEqualTo("Listing " + dto.getListingId());
+            });
+            assertThat(service.activeListings()).hasSameSizeAs(latest);
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void rebuildCache_pagesWithKeysetCursor_andStopsAtPreloadLimit() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setPreloadLimit(3);
+        properties.setPreloadPageSize(2);
+        cacheService = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+        Listing newest = listing(4L, 40);
+        Listing second = listing(3L, 30);
+        Listing third = listing(2L, 20);
+        when(listingRepository.findDtoPageByStatus(ListingStatus.ACTIVE, PageRequest.of(0, 2)))
+                .thenReturn(dtos(newest, second));
+        when(listingRepository.findDtoPageByStatusBefore(ListingStatus.ACTIVE, second.getCreatedDate(), 3L, PageRequest.of(0, 1)))
+                .thenReturn(dtos(third));
+
+        cacheService.rebuildCache("test");
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(4L, 3L, 2L);
+        verify(listingRepository, never()).findByStatusOrderByCreatedDateDesc(any());
+    }
+
+    @Test
+    void upsert_movesRepricedListingBetweenBuckets_andDropsSoldListing() {
+        Listing listing = listing(1L, 10);
+        cacheService.upsert(listing);
+
+        listing.setPrice(new BigDecimal("25"));
+        cacheService.upsert(listing);
+
+        assertThat(cacheService.priceRange(BigDecimal.ZERO, new BigDecimal("100"), 10))
+                .extracting(ListingDto::getPrice).containsExactly(new BigDecimal("25"));
+
+        listing.setStatus(ListingStatus.SOLD);
+        cacheService.upsert(listing);
+
+        assertThat(cacheService.latest(10)).isEmpty();
+        assertThat(cacheService.findById(1L)).isEmpty();
+    }
+
+    @Test
+    void offHeapPayloads_serveDecodedCopies_acrossRebuildReplayAndRerank() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setPayloadStorage(ListingCacheProperties.PayloadStorage.OFF_HEAP);
+        cacheService = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenAnswer(invocation -> {
+            cacheService.upsert(listing(3L, 30));
+            return dtos(listing(2L, 20), listing(1L, 10));
+        });
+
+        cacheService.rebuildCache("test");
+        tracker.record(1L, ListingPopularityTracker.Signal.BID);
+        cacheService.rerankPopularity();
+
+        assertThat(cacheService.latest(10)).extracting(ListingDto::getListingId).containsExactly(3L, 2L, 1L);
+        assertThat(cacheService.popular(1)).extracting(ListingDto::getTitle).containsExactly("Listing 1");
+        assertThat(cacheService.findById(2L)).get().isNotSameAs(cacheService.findById(2L).orElseThrow());
+    }
+
+    @Test
+    void offHeapPayloads_skipTombstones_andRebuildOnceEnoughRecordsAreDead() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setPayloadStorage(ListingCacheProperties.PayloadStorage.OFF_HEAP);
+        properties.setRefreshMode(ListingCacheProperties.RefreshMode.INCREMENTAL);
+        properties.setOffHeapMaxDeadPercent(40);
+        cacheService = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+        cacheService.rebuildCache("test");
+        cacheService.upsert(listing(1L, 10));
+        cacheService.upsert(listing(2L, 20));
+        Listing sold = listing(3L, 30);
+        sold.setStatus(ListingStatus.SOLD);
+        for (int i = 0; i < 5; i++) {
+            cacheService.upsert(sold);
+        }
+
+        // One of three live-sized records is dead; had the tombstones been stored it would be far less
+        cacheService.upsert(listing(1L, 10));
+        cacheService.scheduledRefresh();
+        verify(listingRepository, times(1)).findDtoPageByStatus(eq(ListingStatus.ACTIVE), any());
+
+        cacheService.upsert(listing(2L, 20));
+        cacheService.scheduledRefresh();
+        verify(listingRepository, times(2)).findDtoPageByStatus(eq(ListingStatus.ACTIVE), any());
+    }
+
+    @Test
+    void rerankPopularity_promotesListingsWithRecentEngagement() {
+        cacheService.upsert(listing(1L, 10));
+        cacheService.upsert(listing(2L, 20));
+        assertThat(cacheService.popular(10)).extracting(ListingDto::getListingId).containsExactly(2L, 1L);
+
+        tracker.record(1L, ListingPopularityTracker.Signal.CART_ADD);
+        cacheService.rerankPopularity();
+
+        assertThat(cacheService.popular(10)).extracting(ListingDto::getListingId).containsExactly(1L, 2L);
+
+        // Six half-lives later a single view of the other listing outweighs the old cart add
+        now += 6 * 60 * 60_000L;
+        tracker.record(2L, ListingPopularityTracker.Signal.VIEW);
+        cacheService.rerankPopularity();
+
+        assertThat(cacheService.popular(10)).extracting(ListingDto::getListingId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void cursorPages_walkEveryFeedOnce_acrossTiedKeys() {
+        for (ListingCacheProperties.IndexType type : ListingCacheProperties.IndexType.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setIndexType(type);
+            properties.setTreeOrder(4);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            // Five listings share each creation minute and each price, so every page boundary splits a tie
+            for (long id = 1; id <= 23; id++) {
+                Listing listing = listing(id, (int) (id / 5));
+                listing.setPrice(BigDecimal.valueOf(id % 4));
+                service.upsert(listing);
+            }
+
+            List<Long> latest = drain(cursor -> service.latestPage(cursor, 4));
+            List<Long> popular = drain(cursor -> service.popularPage(cursor, 4));
+            List<Long> cheap = drain(cursor -> service.priceRangePage(BigDecimal.ONE, new BigDecimal("2"), cursor, 4));
+
+            assertThat(latest).as(type.name()).containsExactlyElementsOf(
+                    service.latest(100).stream().map(ListingDto::getListingId).toList());
+            assertThat(popular).as(type.name()).containsExactlyElementsOf(
+                    service.popular(100).stream().map(ListingDto::getListingId).toList());
+            assertThat(cheap).as(type.name()).containsExactlyElementsOf(
+                    service.priceRange(BigDecimal.ONE, new BigDecimal("2"), 100).stream().map(ListingDto::getListingId).toList());
+            assertThat(latest).hasSize(23).doesNotHaveDuplicates();
+            assertThat(cheap).hasSize(12).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void categoryAndConditionSubIndexes_followRecategorisedAndSoldListings() {
+        for (ListingCacheProperties.IndexType type : ListingCacheProperties.IndexType.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setIndexType(type);
+            properties.setTreeOrder(4);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            service.rebuildCache("test");
+            for (long id = 1; id <= 12; id++) {
+                Listing listing = listing(id, (int) id);
+                listing.setCategory(id % 2 == 0 ? Category.BOOKS : Category.TOYS_GAMES);
+                listing.setCondition(id % 3 == 0 ? ListingCondition.NEW : ListingCondition.GOOD);
+                listing.setPrice(BigDecimal.valueOf(id));
+                service.upsert(listing);
+            }
+
+            Listing moved = listing(12L, 12);
+            moved.setCategory(Category.TOYS_GAMES);
+            moved.setCondition(ListingCondition.NEW);
+            moved.setPrice(BigDecimal.valueOf(12));
+            service.upsert(moved);
+            Listing sold = listing(10L, 10);
+            sold.setCategory(Category.BOOKS);
+            sold.setStatus(ListingStatus.SOLD);
+            service.upsert(sold);
+
+            assertThat(service.byCategory(Category.BOOKS, null, null, 3)).as(type.name())
+                    .extracting(ListingDto::getListingId).containsExactly(8L, 6L, 4L);
+            assertThat(service.byCategory(Category.TOYS_GAMES, new BigDecimal("5"), new BigDecimal("12"), 10)).as(type.name())
+                    .extracting(ListingDto::getListingId).containsExactly(5L, 7L, 9L, 11L, 12L);
+            assertThat(service.byCondition(ListingCondition.NEW, null, new BigDecimal("9"), 10)).as(type.name())
+                    .extracting(ListingDto::getListingId).containsExactly(3L, 6L, 9L);
+            assertThat(service.byCategory(Category.ELECTRONICS, null, null, 10)).isEmpty();
+        }
+    }
+
+    @Test
+    void sellerPages_walkTheSellerSubIndex_andUseTheRepositoryForOtherStatuses() {
+        User other = new User();
+        other.setUserId(2L);
+        for (ListingCacheProperties.IndexType type : ListingCacheProperties.IndexType.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setIndexType(type);
+            properties.setTreeOrder(4);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            List<Listing> listings = new ArrayList<>();
+            for (long id = 1; id <= 11; id++) {
+                Listing listing = listing(id, (int) (id / 3));
+                if (id % 4 == 0) {
+                    listing.setUser(other);
+                }
+                listings.add(listing);
+            }
+            when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any()))
+                    .thenReturn(dtos(listings.toArray(Listing[]::new)));
+            service.rebuildCache("test");
+
+            Listing handedOver = listing(5L, 1);
+            handedOver.setUser(other);
+            service.upsert(handedOver);
+            Listing sold = listing(9L, 3);
+            sold.setStatus(ListingStatus.SOLD);
+            service.upsert(sold);
+
+            assertThat(drain(cursor -> service.sellerPage(1L, ListingStatus.ACTIVE, cursor, 2))).as(type.name())
+                    .containsExactly(11L, 10L, 7L, 6L, 3L, 2L, 1L);
+            assertThat(drain(cursor -> service.sellerPage(2L, ListingStatus.ACTIVE, cursor, 2))).as(type.name())
+                    .containsExactly(8L, 5L, 4L);
+            assertThat(service.sellerPage(3L, ListingStatus.ACTIVE, null, 2).getItems()).isEmpty();
+        }
+        verify(listingRepository, never()).findDtoPageBySeller(any(), any(), any(), any(), any());
+
+        String cursor = new ListingCursor(ListingCursor.Feed.SELLER, "2025-01-01T00:03", 9L).encode();
+        when(listingRepository.findDtoPageBySeller(1L, null, LocalDateTime.of(2025, 1, 1, 0, 3), 9L, PageRequest.of(0, 1)))
+                .thenReturn(dtos(listing(7L, 2)));
+        CursorPage<ListingDto> page = cacheService.sellerPage(1L, null, cursor, 1);
+        assertThat(page.getItems()).extracting(ListingDto::getListingId).containsExactly(7L);
+        assertThat(ListingCursor.decode(page.getNextCursor(), ListingCursor.Feed.SELLER).listingId()).isEqualTo(7L);
+        String latestCursor = new ListingCursor(ListingCursor.Feed.LATEST, "2025-01-01T00:03", 9L).encode();
+        assertThatThrownBy(() -> cacheService.sellerPage(1L, null, latestCursor, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_isAnsweredFromTheInvertedIndex_andFollowsWrites() {
+        Listing camera = listing(1L, 10);
+        camera.setTitle("Vintage camera");
+        Listing lens = listing(2L, 20);
+        lens.setTitle("Camera lens");
+        lens.setDescription("Fits vintage bodies");
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenReturn(dtos(camera, lens));
+        cacheService.rebuildCache("test");
+
+        assertThat(cacheService.search("vintage cam", 1, 10).getItems()).extracting(ListingDto::getListingId)
+                .containsExactly(1L, 2L);
+
+        Listing tripod = listing(3L, 30);
+        tripod.setTitle("Camera tripod");
+        cacheService.upsert(tripod);
+        camera.setStatus(ListingStatus.SOLD);
+        cacheService.upsert(camera);
+        cacheService.evict(2L);
+
+        PagedResponse<ListingDto> page = cacheService.search("camera", 1, 10);
+        assertThat(page.getItems()).extracting(ListingDto::getListingId).containsExactly(3L);
+        assertThat(page.getTotal()).isEqualTo(1);
+        assertThat(cacheService.suggest("camra", 3)).extracting(ListingSuggestIndex.Suggestion::text, ListingSuggestIndex.Suggestion::listings)
+                .containsExactly(tuple("camera", 1));
+        verify(listingRepository, never()).searchDtoByKeyword(any(), any(), any());
+    }
+
+    @Test
+    void search_fallsBackToRepository_untilTheCacheHoldsEveryActiveListing() {
+        when(listingRepository.searchDtoByKeyword("camera", ListingStatus.ACTIVE, PageRequest.of(1, 5)))
+                .thenReturn(new PageImpl<>(dtos(listing(7L, 70)), PageRequest.of(1, 5), 6));
+
+        PagedResponse<ListingDto> page = cacheService.search(" camera ", 2, 5);
+
+        assertThat(page.getItems()).extracting(ListingDto::getListingId).containsExactly(7L);
+        assertThat(page.getTotal()).isEqualTo(6);
+        assertThat(cacheService.search(" ", 1, 5).getItems()).isEmpty();
+    }
+
+    @Test
+    void facets_countTheSearchResults_andFallBackToOneGroupedQuery() {
+        Listing camera = listing(1L, 10);
+        camera.setTitle("Vintage camera");
+        camera.setCategory(Category.ELECTRONICS);
+        camera.setCondition(ListingCondition.GOOD);
+        camera.setPrice(new BigDecimal("120"));
+        Listing novel = listing(2L, 20);
+        novel.setTitle("Vintage novel");
+        novel.setCategory(Category.BOOKS);
+        novel.setCondition(ListingCondition.GOOD);
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenReturn(dtos(camera, novel));
+        when(listingRepository.countFacets(ListingStatus.ACTIVE, "vintage")).thenReturn(List.<Object[]>of(
+                new Object[]{Category.BOOKS, ListingCondition.FAIR, 2L, 0L, 0L, 0L, 0L, 0L, 1L}));
+
+        ListingFacetIndex.Facets fallback = cacheService.facets(" vintage ");
+        assertThat(fallback.total()).isEqualTo(3);
+        assertThat(fallback.categories()).containsEntry(Category.BOOKS, 3).containsEntry(Category.ELECTRONICS, 0);
+        assertThat(fallback.prices()).extracting(ListingFacetIndex.PriceBucket::listings).containsExactly(2, 0, 0, 0, 0, 0, 1);
+
+        cacheService.rebuildCache("test");
+        ListingFacetIndex.Facets vintage = cacheService.facets("vintage");
+        assertThat(vintage.total()).isEqualTo(2);
+        assertThat(vintage.conditions()).containsEntry(ListingCondition.GOOD, 2);
+        assertThat(vintage.prices()).extracting(ListingFacetIndex.PriceBucket::listings).containsExactly(1, 0, 0, 1, 0, 0, 0);
+
+        novel.setStatus(ListingStatus.SOLD);
+        cacheService.upsert(novel);
+        assertThat(cacheService.facets("vintage").categories()).containsEntry(Category.BOOKS, 0).containsEntry(Category.ELECTRONICS, 1);
+        assertThat(cacheService.facets(null).total()).isEqualTo(1);
+        verify(listingRepository, times(1)).countFacets(any(), any());
+    }
+
+    @Test
+    void query_matchesBruteForceFilter_forRandomConjunctions() {
+        Random random = new Random(11);
+        for (ListingCacheProperties.IndexType type : ListingCacheProperties.IndexType.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setIndexType(type);
+            properties.setTreeOrder(8);
+            // The node-based index also runs sharded, so the planner is exercised over scatter-gather reads
+            properties.setShards(type == ListingCacheProperties.IndexType.BPLUS_TREE ? 3 : 1);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            service.rebuildCache("test");
+            List<Listing> listings = new ArrayList<>();
+            for (long id = 1; id <= 400; id++) {
+                // A few ids past the int range must not change how candidates are intersected
+                Listing listing = listing(id % 50 == 0 ? Integer.MAX_VALUE + id : id, random.nextInt(2_000));
+                listing.setCategory(Category.values()[random.nextInt(Category.values().length)]);
+                listing.setCondition(ListingCondition.values()[random.nextInt(ListingCondition.values().length)]);
+                listing.setPrice(BigDecimal.valueOf(random.nextInt(500)));
+                User owner = new User();
+                owner.setUserId((long) random.nextInt(5));
+                listing.setUser(owner);
+                listings.add(listing);
+                service.upsert(listing);
+            }
+
+            for (int round = 0; round < 200; round++) {
+                BigDecimal min = random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(250)) : null;
+                ListingQuery query = new ListingQuery(
+                        random.nextBoolean() ? Category.values()[random.nextInt(Category.values().length)] : null,
+                        random.nextBoolean() ? ListingCondition.values()[random.nextInt(ListingCondition.values().length)] : null,
+                        min,
+                        random.nextBoolean() ? BigDecimal.valueOf(250 + random.nextInt(250)) : null,
+                        random.nextInt(4) == 0 ? (long) random.nextInt(5) : null,
+                        random.nextBoolean() ? LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(random.nextInt(2_000)) : null,
+                        1 + random.nextInt(60));
+                List<Long> expected = service.latest(Integer.MAX_VALUE).stream()
+                        .map(dto -> service.findById(dto.getListingId()).orElseThrow())
+                        .map(dto -> new ListingCacheEntry(dto, 0))
+                        .filter(query::matches)
+                        .limit(query.limit())
+                        .map(ListingCacheEntry::getListingId)
+                        .toList();
+
+                assertThat(service.query(query)).as(type + " " + query)
+                        .extracting(ListingDto::getListingId).containsExactlyElementsOf(expected);
+            }
+            service.shutdown();
+        }
+        verify(listingRepository, never()).findDtoByFilters(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void byCategoryAndCondition_fallBackToRepository_untilTheCacheHoldsEveryActiveListing() {
+        cacheService.upsert(listing(1L, 10));
+        when(listingRepository.findDtoByFilters(ListingStatus.ACTIVE, Category.BOOKS, null, null, null, null, null,
+                false, PageRequest.of(0, 5))).thenReturn(dtos(listing(7L, 70)));
+        when(listingRepository.findDtoByFilters(ListingStatus.ACTIVE, null, ListingCondition.NEW, null, new BigDecimal("9"),
+                null, null, true, PageRequest.of(0, 5))).thenReturn(dtos(listing(8L, 80)));
+
+        assertThat(cacheService.byCategory(Category.BOOKS, null, null, 5)).extracting(ListingDto::getListingId).containsExactly(7L);
+        assertThat(cacheService.byCondition(ListingCondition.NEW, null, new BigDecimal("9"), 5))
+                .extracting(ListingDto::getListingId).containsExactly(8L);
+    }
+
+    @Test
+    void query_fallsBackToRepository_untilTheCacheHoldsEveryActiveListing() {
+        cacheService.upsert(listing(1L, 10));
+        ListingQuery query = new ListingQuery(null, null, null, null, null, null, 10);
+        when(listingRepository.findDtoByFilters(ListingStatus.ACTIVE, null, null, null, null, null, null, false,
+                PageRequest.of(0, 10))).thenReturn(dtos(listing(7L, 70)));
+
+        assertThat(cacheService.query(query)).extracting(ListingDto::getListingId).containsExactly(7L);
+    }
+
+    @Test
+    void query_fallsBackToRepository_whenCacheDisabled() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setEnabled(false);
+        cacheService = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+        ListingQuery query = new ListingQuery(Category.BOOKS, null, null, new BigDecimal("20"), null, null, 10);
+        when(listingRepository.findDtoByFilters(ListingStatus.ACTIVE, Category.BOOKS, null, null, new BigDecimal("20"),
+                null, null, false, PageRequest.of(0, 10))).thenReturn(dtos(listing(7L, 70)));
+
+        assertThat(cacheService.query(query)).extracting(ListingDto::getListingId).containsExactly(7L);
+    }
+
+    @Test
+    void jsonPages_concatenatePreEncodedFragments_forHeapAndOffHeapPayloads() throws Exception {
+        for (ListingCacheProperties.PayloadStorage storage : ListingCacheProperties.PayloadStorage.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setPayloadStorage(storage);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+            service.upsert(listing(1L, 10));
+            service.upsert(listing(2L, 20));
+            service.upsert(listing(3L, 30));
+
+            ListingJsonPage first = service.latestJson(null, 2);
+            ListingJsonPage second = service.latestJson(first.nextCursor(), 2);
+
+            assertThat(objectMapper.readTree(first.json()))
+                    .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(service.latestPage(null, 2).getItems())));
+            assertThat(objectMapper.readTree(second.json()).get(0).get("listingId").asLong()).as(storage.name()).isEqualTo(1L);
+            assertThat(second.nextCursor()).isNull();
+            assertThat(new String(service.popularJson(null, 10).json())).startsWith("[{").endsWith("}]");
+            assertThat(new String(service.priceRangeJson(BigDecimal.ONE, BigDecimal.ONE, null, 10).json())).isEqualTo("[]");
+        }
+    }
+
+    @Test
+    void cursorPages_rejectTokensFromAnotherFeed() {
+        cacheService.upsert(listing(1L, 10));
+        cacheService.upsert(listing(2L, 20));
+        String cursor = cacheService.latestPage(null, 1).getNextCursor();
+
+        assertThat(cursor).isNotNull();
+        assertThatThrownBy(() -> cacheService.popularPage(cursor, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cacheService.latestPage("not a cursor", 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cacheService.latestPage(cursor, 1).getItems()).extracting(ListingDto::getListingId).containsExactly(1L);
+    }
+
+    @Test
+    void concurrentUpsertsAndEvictions_keepIndexAndEntriesConsistent() throws Exception {
+        for (ListingCacheProperties.IndexType type : ListingCacheProperties.IndexType.values()) {
+            ListingCacheProperties properties = new ListingCacheProperties();
+            properties.setIndexType(type);
+            properties.setTreeOrder(4);
+            ListingCacheService service = new ListingCacheService(listingRepository, properties, tracker, objectMapper);
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        long id = random.nextLong(1, 200);
+                        if (random.nextInt(10) == 0) {
+                            service.evict(id);
+                            continue;
+                        }
+                        Listing listing = listing(id, random.nextInt(1_000));
+                        listing.setPrice(BigDecimal.valueOf(random.nextInt(50)));
+                        listing.setStatus(random.nextInt(5) == 0 ? ListingStatus.SOLD : ListingStatus.ACTIVE);
+                        service.upsert(listing);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            pool.shutdown();
+
+            List<Long> byCreated = service.latest(Integer.MAX_VALUE).stream().map(ListingDto::getListingId).toList();
+            List<Long> byPrice = service.priceRange(BigDecimal.ZERO, new BigDecimal("1000"), Integer.MAX_VALUE)
+                    .stream().map(ListingDto::getListingId).toList();
+            List<Long> byPopularity = service.popular(Integer.MAX_VALUE).stream().map(ListingDto::getListingId).toList();
+            assertThat(byCreated).as(type.name()).doesNotHaveDuplicates();
+            assertThat(byPrice).as(type.name()).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(byCreated);
+            assertThat(byPopularity).as(type.name()).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(byCreated);
+            for (long id = 1; id < 200; id++) {
+                Optional<ListingDto> cached = service.findById(id);
+                assertThat(cached.isPresent()).as(type + " id " + id).isEqualTo(byCreated.contains(id));
+                cached.ifPresent(dto -> assertThat(dto.getStatus()).isEqualTo(ListingStatus.ACTIVE));
+            }
+        }
+    }
+
+    private List<Long> drain(Function<String, CursorPage<ListingDto>> fetch) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ListingDto> page = fetch.apply(cursor);
+            page.getItems().forEach(dto -> ids.add(dto.getListingId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<ListingDto> dtos(Listing... listings) {
+        return Arrays.stream(listings).map(ListingMapper::toDto).toList();
+    }
+
+    private Listing listing(Long id, int minutes) {
+        Listing listing = new Listing();
+        listing.setListingId(id);
+        listing.setTitle("Listing " + id);
+        listing.setPrice(new BigDecimal("10"));
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setUser(seller);
+        listing.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(minutes));
+        return listing;
+    }
+}
@@ -0,0 +1,109 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.entity.Listing;
+import com.swaply.swaplybackend.entity.User;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingDetailCacheTest {
+
+    @Mock ListingRepository listingRepository;
+
+    private ListingCacheService cacheService;
+    private ListingDetailCache detailCache;
+    private long nanos;
+    private User seller;
+
+    @BeforeEach
+    void setup() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setDetailCacheTtlSeconds(300);
+        properties.setDetailNegativeTtlSeconds(30);
+        cacheService = new ListingCacheService(listingRepository, properties,
+                new ListingPopularityTracker(60, () -> 0L), Jackson2ObjectMapperBuilder.json().build());
+        detailCache = new ListingDetailCache(cacheService, listingRepository, properties, () -> nanos);
+        seller = new User();
+        seller.setUserId(1L);
+        seller.setUserName("nick");
+    }
+
+    @Test
+    void preloadedListings_areServedWithoutTheRepository() {
+        cacheService.upsert(listing(1L, ListingStatus.ACTIVE));
+
+        assertThat(detailCache.find(1L)).map(ListingDto::getListingId).contains(1L);
+        verifyNoInteractions(listingRepository);
+        assertThat(detailCache.stats().preloadedHits()).isEqualTo(1);
+    }
+
+    @Test
+    void otherListings_areLoadedOnce_andReloadedAfterAChange() {
+        when(listingRepository.findById(2L)).thenReturn(Optional.of(listing(2L, ListingStatus.SOLD)));
+
+        assertThat(detailCache.find(2L)).map(ListingDto::getStatus).contains(ListingStatus.SOLD);
+        assertThat(detailCache.find(2L)).isPresent();
+        verify(listingRepository, times(1)).findById(2L);
+
+        cacheService.evict(2L);
+        detailCache.find(2L);
+        verify(listingRepository, times(2)).findById(2L);
+        assertThat(detailCache.stats()).extracting(ListingDetailCache.Stats::loadedHits, ListingDetailCache.Stats::misses)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void missingIds_areCachedUntilTheNegativeTtlExpires() {
+        when(listingRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThat(detailCache.find(9L)).isEmpty();
+        assertThat(detailCache.find(9L)).isEmpty();
+        verify(listingRepository, times(1)).findById(9L);
+
+        nanos += Duration.ofSeconds(31).toNanos();
+        detailCache.find(9L);
+        verify(listingRepository, times(2)).findById(9L);
+        assertThat(detailCache.stats().negativeHits()).isEqualTo(1);
+        assertThat(detailCache.stats().hitRate()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void fullRebuild_dropsEverythingLoaded() {
+        when(listingRepository.findById(9L)).thenReturn(Optional.empty());
+        when(listingRepository.findDtoPageByStatus(eq(ListingStatus.ACTIVE), any())).thenReturn(List.of());
+        detailCache.find(9L);
+
+        cacheService.rebuildCache("test");
+        detailCache.find(9L);
+
+        verify(listingRepository, times(2)).findById(9L);
+    }
+
+    private Listing listing(Long id, ListingStatus status) {
+        Listing listing = new Listing();
+        listing.setListingId(id);
+        listing.setTitle("Listing " + id);
+        listing.setPrice(new BigDecimal("10"));
+        listing.setStatus(status);
+        listing.setUser(seller);
+        listing.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+        return listing;
+    }
+}
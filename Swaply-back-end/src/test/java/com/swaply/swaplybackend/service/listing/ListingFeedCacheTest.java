@@ -0,0 +1,105 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.entity.Listing;
+import com.swaply.swaplybackend.entity.User;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingFeedCacheTest {
+
+    @Mock ListingRepository listingRepository;
+
+    private ListingCacheService cacheService;
+    private ListingFeedCache feedCache;
+    private User seller;
+
+    @BeforeEach
+    void setup() {
+        ListingCacheProperties properties = new ListingCacheProperties();
+        properties.setFeedResponseCacheSize(2);
+        cacheService = new ListingCacheService(listingRepository, properties,
+                new ListingPopularityTracker(60, () -> 0L), Jackson2ObjectMapperBuilder.json().build());
+        feedCache = new ListingFeedCache(cacheService, properties);
+        seller = new User();
+        seller.setUserId(1L);
+        seller.setUserName("nick");
+        cacheService.upsert(listing(1L, 10));
+        cacheService.upsert(listing(2L, 20));
+    }
+
+    @Test
+    void repeatedRequests_areServedFromRenderedResponses() {
+        ListingFeed first = feedCache.latest(null, 10, null);
+
+        assertThat(feedCache.latest(null, 10, null)).isSameAs(first);
+        assertThat(feedCache.latest(null, 5, null).etag()).isNotEqualTo(first.etag());
+        assertThat(feedCache.priceRange(new BigDecimal("10"), new BigDecimal("20.00"), null, 10, null).etag())
+                .isEqualTo(feedCache.priceRange(new BigDecimal("10.0"), new BigDecimal("20"), null, 10, null).etag());
+    }
+
+    @Test
+    void upsertAndEvict_invalidateRenderedResponses_andChangeTheEtag() {
+        ListingFeed before = feedCache.latest(null, 10, null);
+
+        cacheService.upsert(listing(3L, 30));
+        ListingFeed afterUpsert = feedCache.latest(null, 10, null);
+        cacheService.evict(3L);
+        ListingFeed afterEvict = feedCache.latest(null, 10, null);
+
+        assertThat(afterUpsert.etag()).isNotEqualTo(before.etag());
+        assertThat(new String(afterUpsert.page().json())).contains("\"listingId\":3");
+        assertThat(afterEvict.etag()).isNotIn(before.etag(), afterUpsert.etag());
+        assertThat(new String(afterEvict.page().json())).doesNotContain("\"listingId\":3");
+    }
+
+    @Test
+    void leastRecentlyUsedResponse_isDropped_onceCapacityIsReached() {
+        ListingFeed latest = feedCache.latest(null, 10, null);
+        ListingFeed popular = feedCache.popular(null, 10, null);
+        feedCache.latest(null, 10, null);
+        feedCache.latest(null, 1, null);
+
+        assertThat(feedCache.latest(null, 10, null)).isSameAs(latest);
+        ListingFeed rerendered = feedCache.popular(null, 10, null);
+        assertThat(rerendered).isNotSameAs(popular);
+        assertThat(rerendered.etag()).isEqualTo(popular.etag());
+    }
+
+    @Test
+    void matchingIfNoneMatch_skipsRendering_forStrongAndWeakValidators() {
+        String etag = feedCache.latest(null, 10, null).etag();
+
+        assertThat(feedCache.latest(null, 10, etag).notModified()).isTrue();
+        assertThat(feedCache.latest(null, 10, "\"other\", W/" + etag).notModified()).isTrue();
+        assertThat(feedCache.latest(null, 5, etag).notModified()).isFalse();
+
+        cacheService.upsert(listing(3L, 30));
+        ListingFeed changed = feedCache.latest(null, 10, etag);
+        assertThat(changed.notModified()).isFalse();
+        assertThat(new String(changed.page().json())).contains("\"listingId\":3");
+    }
+
+    private Listing listing(Long id, int minutes) {
+        Listing listing = new Listing();
+        listing.setListingId(id);
+        listing.setTitle("Listing " + id);
+        listing.setPrice(new BigDecimal("10"));
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setUser(seller);
+        listing.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(minutes));
+        return listing;
+    }
+}
@@ -0,0 +1,107 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.entity.Listing;
+import com.swaply.swaplybackend.entity.User;
+import com.swaply.swaplybackend.enums.ListingStatus;
+import com.swaply.swaplybackend.repository.ListingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingInvalidationRelayTest {
+
+    @Mock ListingRepository listingRepository;
+
+    @Test
+    void writesOnOneNode_areReReadByTheOthers_andNotEchoedBack() {
+        LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+        List<ListingInvalidationBus.Event> seen = new ArrayList<>();
+        bus.subscribe(seen::add);
+        ListingCacheService first = node();
+        ListingCacheService second = node();
+        ListingInvalidationRelay firstRelay = new ListingInvalidationRelay(first, bus);
+        new ListingInvalidationRelay(second, bus);
+
+        Listing camera = listing(1L);
+        when(listingRepository.findById(1L)).thenReturn(Optional.of(camera));
+        first.upsert(camera);
+
+        assertThat(second.findById(1L)).hasValueSatisfying(dto -> assertThat(dto.getTitle()).isEqualTo("Camera"));
+        verify(listingRepository, times(1)).findById(1L);
+
+        when(listingRepository.findById(1L)).thenReturn(Optional.empty());
+        first.evict(1L);
+
+        assertThat(second.findById(1L)).isEmpty();
+        assertThat(seen).extracting(ListingInvalidationBus.Event::sequence).containsExactly(1L, 2L);
+        assertThat(seen).extracting(ListingInvalidationBus.Event::origin).containsOnly(firstRelay.nodeId());
+    }
+
+    @Test
+    void writesInsideATransaction_arePublishedOnlyAfterCommit() {
+        LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+        List<ListingInvalidationBus.Event> seen = new ArrayList<>();
+        bus.subscribe(seen::add);
+        ListingCacheService cache = node();
+        new ListingInvalidationRelay(cache, bus);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.upsert(listing(1L));
+            assertThat(seen).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(seen).extracting(ListingInvalidationBus.Event::listingId).containsExactly(1L);
+    }
+
+    @Test
+    void apply_skipsRedeliveredSequences() {
+        ListingCacheService cache = node();
+        ListingInvalidationRelay relay = new ListingInvalidationRelay(cache, new LoopbackInvalidationBus());
+        when(listingRepository.findById(7L)).thenReturn(Optional.of(listing(7L)));
+
+        relay.apply(new ListingInvalidationBus.Event(5, "other", 7L));
+        relay.apply(new ListingInvalidationBus.Event(5, "other", 7L));
+        relay.apply(new ListingInvalidationBus.Event(4, "other", 7L));
+
+        verify(listingRepository, times(1)).findById(7L);
+        assertThat(cache.findById(7L)).isPresent();
+    }
+
+    private ListingCacheService node() {
+        return new ListingCacheService(listingRepository, new ListingCacheProperties(),
+                new ListingPopularityTracker(60, () -> 0L), Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    private Listing listing(Long id) {
+        User seller = new User();
+        seller.setUserId(1L);
+        Listing listing = new Listing();
+        listing.setListingId(id);
+        listing.setTitle("Camera");
+        listing.setPrice(new BigDecimal("10"));
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setUser(seller);
+        listing.setCreatedDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+        return listing;
+    }
+}
@@ -0,0 +1,58 @@
+package com.swaply.swaplybackend.service.listing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ListingPopularityTrackerTest {
+
+    private static final long HALF_LIFE_MS = 30 * 60_000L;
+
+    private long now;
+    private ListingPopularityTracker tracker;
+
+    @BeforeEach
+    void setup() {
+        now = 1_000_000L;
+        tracker = new ListingPopularityTracker(30, () -> now);
+    }
+
+    @Test
+    void record_accumulatesWeights_andHalvesEveryHalfLife() {
+        tracker.record(1L, ListingPopularityTracker.Signal.BID);
+        tracker.record(1L, ListingPopularityTracker.Signal.VIEW);
+        assertThat(tracker.score(1L)).isCloseTo(9.0, within(1e-9));
+
+        now += HALF_LIFE_MS;
+        assertThat(tracker.score(1L)).isCloseTo(4.5, within(1e-9));
+        assertThat(tracker.score(2L)).isZero();
+    }
+
+    @Test
+    void rankKey_ordersByEngagement_thenByRecency() {
+        LocalDateTime older = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime newer = older.plusHours(1);
+        tracker.record(1L, ListingPopularityTracker.Signal.VIEW);
+
+        assertThat(tracker.rankKey(1L, older)).isGreaterThan(tracker.rankKey(2L, newer));
+        assertThat(tracker.rankKey(3L, newer)).isGreaterThan(tracker.rankKey(2L, older));
+    }
+
+    @Test
+    void prune_dropsDecayedSlots_andKeepsTheRest() {
+        for (long id = 1; id <= 2_000; id++) {
+            tracker.record(id, ListingPopularityTracker.Signal.VIEW);
+        }
+        now += 10 * HALF_LIFE_MS;
+        tracker.record(7L, ListingPopularityTracker.Signal.BID);
+
+        int removed = tracker.prune();
+
+        assertThat(removed).isEqualTo(1_999);
+        assertThat(tracker.size()).isEqualTo(1);
+        assertThat(tracker.score(7L)).isGreaterThan(8.0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.cache.listing.ListingSearchIndex;
+import com.swaply.swaplybackend.enums.Category;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Keyword search over a generated catalogue: a LIKE-style substring scan against the in-memory
+ * {@link ListingSearchIndex}, and, when a scratch MySQL schema is supplied, the repository's LIKE
+ * query against {@link FulltextListingSearchEngine} on a seeded table. Not picked up by the
+ * default surefire includes; run it explicitly:
+ * {@code mvn test -Dtest=ListingSearchBenchmark -Dbench.mysql.url=jdbc:mysql://localhost:3306/swaply_bench
+ * -Dbench.mysql.user=... -Dbench.mysql.password=...}
+ * The MySQL run creates and fills tb_user/tb_listing in that schema, so never point it at real data.
+ */
+class ListingSearchBenchmark {
+
+    private static final int IN_MEMORY_LISTINGS = 50_000;
+    private static final int MYSQL_LISTINGS = Integer.getInteger("bench.mysql.rows", 1_000_000);
+    private static final int QUERIES = 200;
+    private static final int MYSQL_QUERIES = 20;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+    private static final String[] WORDS = {"camera", "lens", "tripod", "vintage", "guitar", "amplifier", "bike",
+            "helmet", "lamp", "desk", "chair", "sofa", "jacket", "boots", "watch", "console", "controller", "novel",
+            "textbook", "puzzle", "board", "blender", "kettle", "drill", "tent", "kayak", "racket", "phone", "laptop",
+            "monitor", "keyboard", "speaker", "record", "vinyl", "poster", "mirror", "rug", "stroller", "scooter"};
+
+    @Test
+    void keywordSearch_substringScan_vsInvertedIndex() {
+        Random random = new Random(1);
+        String[] titles = new String[IN_MEMORY_LISTINGS];
+        String[] descriptions = new String[IN_MEMORY_LISTINGS];
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (int id = 0; id < IN_MEMORY_LISTINGS; id++) {
+            titles[id] = text(random, 4);
+            descriptions[id] = text(random, 20);
+            index.index(id, titles[id], descriptions[id]);
+        }
+        String[] keywords = keywords(random, QUERIES);
+
+        double scanNs = measure("like-scan", QUERIES, i -> {
+            String keyword = keywords[i];
+            int matches = 0;
+            for (int id = 0; id < IN_MEMORY_LISTINGS; id++) {
+                if (titles[id].toLowerCase(Locale.ROOT).contains(keyword)
+                        || descriptions[id].toLowerCase(Locale.ROOT).contains(keyword)) {
+                    matches++;
+                }
+            }
+            return matches;
+        });
+        double indexNs = measure("index", QUERIES, i -> index.search(keywords[i], 0, 20).total());
+
+        System.out.printf("in-memory search speedup: %.2fx%n", scanNs / indexNs);
+        assertThat(indexNs).isPositive();
+    }
+
+    @Test
+    void keywordSearch_likeQuery_vsFulltext_onMySql() {
+        String url = System.getProperty("bench.mysql.url");
+        Assumptions.assumeTrue(url != null, "set -Dbench.mysql.url to a scratch schema to run against MySQL");
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url,
+                System.getProperty("bench.mysql.user", "root"), System.getProperty("bench.mysql.password", "")));
+        seed(jdbc);
+        FulltextListingSearchEngine fulltext = new FulltextListingSearchEngine(jdbc);
+        fulltext.ensureIndex();
+        String[] keywords = keywords(new Random(2), MYSQL_QUERIES);
+
+        // Same predicate and order as ListingRepository.searchDtoByKeyword
+        double likeNs = measure("like", MYSQL_QUERIES, i -> {
+            String pattern = "%" + keywords[i] + "%";
+            jdbc.queryForList("SELECT l.listing_id FROM tb_listing l JOIN tb_user u ON u.user_id = l.user_id "
+                    + "WHERE l.status = 'ACTIVE' AND (LOWER(l.title) LIKE ? OR LOWER(l.description) LIKE ?) "
+                    + "ORDER BY l.created_date DESC LIMIT 20", Long.class, pattern, pattern);
+            Long total = jdbc.queryForObject("SELECT COUNT(*) FROM tb_listing l WHERE l.status = 'ACTIVE' "
+                    + "AND (LOWER(l.title) LIKE ? OR LOWER(l.description) LIKE ?)", Long.class, pattern, pattern);
+            return total != null ? total.intValue() : 0;
+        });
+        double fulltextNs = measure("fulltext", MYSQL_QUERIES, i -> (int) fulltext.search(keywords[i], 1, 20).getTotal());
+
+        System.out.printf("mysql search speedup over %,d rows: %.2fx%n", MYSQL_LISTINGS, likeNs / fulltextNs);
+        assertThat(fulltextNs).isPositive();
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tb_user (user_id BIGINT PRIMARY KEY, user_name VARCHAR(255), "
+                + "profile_image_url VARCHAR(255))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tb_listing (listing_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "title VARCHAR(255), description VARCHAR(1000), price DECIMAL(10,2), category VARCHAR(32), "
+                + "`condition` VARCHAR(32), status VARCHAR(32), image_url VARCHAR(255), user_id BIGINT, "
+                + "created_date DATETIME(6), updated_date DATETIME(6))");
+        jdbc.update("INSERT IGNORE INTO tb_user (user_id, user_name) VALUES (1, 'bench')");
+        Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM tb_listing", Integer.class);
+        Random random = new Random(1);
+        Category[] categories = Category.values();
+        List<Object[]> batch = new ArrayList<>();
+        for (int row = existing != null ? existing : 0; row < MYSQL_LISTINGS; row++) {
+            batch.add(new Object[]{text(random, 4), text(random, 20), random.nextInt(100_000) / 100.0,
+                    categories[random.nextInt(categories.length)].name(), random.nextInt(10) == 0 ? "SOLD" : "ACTIVE"});
+            if (batch.size() == 5_000 || row == MYSQL_LISTINGS - 1) {
+                jdbc.batchUpdate("INSERT INTO tb_listing (title, description, price, category, `condition`, status, "
+                        + "user_id, created_date, updated_date) VALUES (?, ?, ?, ?, 'GOOD', ?, 1, NOW(6), NOW(6))", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private double measure(String name, int queries, ToIntFunction<Integer> query) {
+        long sink = 0;
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += query.applyAsInt(i);
+            }
+            double nsPerQuery = (System.nanoTime() - start) / (double) queries;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, nsPerQuery);
+            }
+        }
+        System.out.printf("%-10s ns/query=%,.0f (matched %d)%n", name, best, sink);
+        return best;
+    }
+
+    private static String[] keywords(Random random, int count) {
+        String[] keywords = new String[count];
+        for (int i = 0; i < count; i++) {
+            keywords[i] = WORDS[random.nextInt(WORDS.length)];
+        }
+        return keywords;
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
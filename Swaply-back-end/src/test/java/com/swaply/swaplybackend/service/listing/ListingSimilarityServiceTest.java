@@ -0,0 +1,54 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.dto.ListingDto;
+import com.swaply.swaplybackend.enums.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSimilarityServiceTest {
+
+    @Mock ListingCacheService cacheService;
+
+    @Test
+    void similar_resolvesNeighboursThroughTheCache_andRebuildsOnlyAfterChanges() {
+        ListingDto bike = dto(1L, "Road bike");
+        ListingDto racer = dto(2L, "Road bike, racing");
+        ListingDto helmet = dto(3L, "Bike helmet");
+        when(cacheService.version()).thenReturn(5L, 5L, 6L);
+        when(cacheService.activeListings()).thenReturn(List.of(bike, racer, helmet));
+        when(cacheService.findById(2L)).thenReturn(Optional.of(racer));
+        when(cacheService.findById(3L)).thenReturn(Optional.empty());
+        ListingSimilarityService service = new ListingSimilarityService(cacheService, new ListingCacheProperties(),
+                ForkJoinPool.commonPool());
+
+        service.rebuild();
+        service.rebuild();
+
+        assertThat(service.similar(1L, 5)).containsExactly(racer);
+        assertThat(service.similar(99L, 5)).isEmpty();
+        verify(cacheService, times(1)).activeListings();
+        service.rebuild();
+        verify(cacheService, times(2)).activeListings();
+    }
+
+    private ListingDto dto(Long id, String title) {
+        ListingDto dto = new ListingDto();
+        dto.setListingId(id);
+        dto.setTitle(title);
+        dto.setCategory(Category.SPORTS);
+        dto.setPrice(new BigDecimal("100"));
+        return dto;
+    }
+}
@@ -0,0 +1,40 @@
+package com.swaply.swaplybackend.service.listing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetRemove_matchHashMap_acrossGrowthAndDeletes() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 50_000; step++) {
+            // A narrow key range forces long probe runs, collisions and backward shifts
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, step);
+                expected.put(key, step);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongIntHashMap.MISSING));
+        }
+    }
+
+    @Test
+    void put_rejectsNegativeValues() {
+        assertThatThrownBy(() -> new LongIntHashMap(4).put(1L, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
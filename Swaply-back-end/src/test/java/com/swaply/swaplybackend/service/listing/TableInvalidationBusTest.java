@@ -0,0 +1,91 @@
+package com.swaply.swaplybackend.service.listing;
+
+import com.swaply.swaplybackend.config.ListingCacheProperties;
+import com.swaply.swaplybackend.entity.ListingInvalidation;
+import com.swaply.swaplybackend.repository.ListingInvalidationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TableInvalidationBusTest {
+
+    @Mock ListingInvalidationRepository repository;
+
+    private long now;
+
+    @Test
+    void poll_deliversInIdOrder_andWaitsOnGapsUntilTheTimeout() {
+        TableInvalidationBus bus = new TableInvalidationBus(repository, new ListingCacheProperties(), () -> now);
+        List<Long> delivered = new ArrayList<>();
+        bus.subscribe(event -> delivered.add(event.sequence()));
+        when(repository.findTopByOrderByInvalidationIdDesc()).thenReturn(Optional.of(row(10, 1)));
+
+        bus.seed();
+
+        when(repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(10L))
+                .thenReturn(List.of(row(11, 5), row(12, 6), row(14, 8)));
+        bus.poll();
+        assertThat(delivered).containsExactly(11L, 12L);
+
+        // 13 is still in flight: 14 waits for it
+        when(repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(12L))
+                .thenReturn(List.of(row(14, 8)));
+        now = 4_000;
+        bus.poll();
+        assertThat(delivered).containsExactly(11L, 12L);
+
+        when(repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(12L))
+                .thenReturn(List.of(row(13, 7), row(14, 8)));
+        bus.poll();
+        assertThat(delivered).containsExactly(11L, 12L, 13L, 14L);
+
+        // 15 never commits: 16 goes out once the gap has been open for the timeout
+        when(repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(14L))
+                .thenReturn(List.of(row(16, 9)));
+        bus.poll();
+        now += 5_000;
+        bus.poll();
+        assertThat(delivered).containsExactly(11L, 12L, 13L, 14L, 16L);
+    }
+
+    @Test
+    void seed_fixesTheStartBeforeTheFirstPoll_soRowsPublishedInBetweenAreDelivered() {
+        TableInvalidationBus bus = new TableInvalidationBus(repository, new ListingCacheProperties(), () -> now);
+        List<Long> delivered = new ArrayList<>();
+        bus.subscribe(event -> delivered.add(event.sequence()));
+        when(repository.findTopByOrderByInvalidationIdDesc()).thenReturn(Optional.of(row(10, 1)));
+        bus.seed();
+
+        // Published while the startup rebuild was running, before the first scheduled poll
+        when(repository.findTop500ByInvalidationIdGreaterThanOrderByInvalidationIdAsc(10L))
+                .thenReturn(List.of(row(11, 5), row(12, 6)));
+        bus.poll();
+
+        assertThat(delivered).containsExactly(11L, 12L);
+        verify(repository, times(1)).findTopByOrderByInvalidationIdDesc();
+    }
+
+    @Test
+    void publish_insertsARowForTheListing() {
+        TableInvalidationBus bus = new TableInvalidationBus(repository, new ListingCacheProperties(), () -> now);
+
+        bus.publish("node-a", 42L);
+
+        verify(repository).save(argThat(row -> row.getListingId() == 42L && row.getOrigin().equals("node-a")));
+    }
+
+    private ListingInvalidation row(long id, long listingId) {
+        ListingInvalidation row = new ListingInvalidation(listingId, "node-b");
+        row.setInvalidationId(id);
+        return row;
+    }
+}
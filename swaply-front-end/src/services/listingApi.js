@@ -52,7 +52,9 @@ export default {
       headers: { ...authHeader() }
     });
   },
-  getListingsByUser(userId) {
-    return client.get(`/user/${userId}`);
+  // One page, newest first; the next page's cursor comes back in the X-Next-Cursor header,
+  // so callers fetch further pages only when the user asks for more
+  getListingsByUser(userId, { status, limit = 50, cursor } = {}) {
+    return client.get(`/user/${userId}`, { params: { status, limit, cursor } });
   }
 };